@@ -0,0 +1,43 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the benchmark thread during the measured operations, measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, and the number of operations. Benchmarks
+ * call {@link #start()} before and {@link #stop(long)} after the measured operation, so set-up code, including
+ * set-up per invocation, is not counted. That is what sets it apart from the gc.alloc.rate.norm of -prof gc.
+ * <p>
+ * JMH sums event counters over the measurement iterations, so both are reported as totals: divide allocatedBytes
+ * by operations for the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public long allocatedBytes;
+    public long operations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        allocatedBytes = 0;
+        operations = 0;
+    }
+
+    long start() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    void stop(long start) {
+        allocatedBytes += THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+        operations++;
+    }
+}
@@ -0,0 +1,69 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+
+/**
+ * Measures taking the first page of an unbounded read and cancelling the rest, including closing the transaction.
+ * Run with {@link ScalingReport} using the documents parameter: the cost should not grow with the size of the
+ * entity, growth means the provider fetches the whole result, on subscription or before it lets go of the
+ * transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class CancellationBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final JsonNavigationPath STATE = JsonNavigationPath.from("$.state");
+    static final int TAKE = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int documents;
+
+    @Override
+    protected void populate() {
+        Ingest.ingest(persistence, specification, Flowable.range(0, documents)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", format("address%010d", i), VERSION),
+                        createAddress("City " + i, "Cancel", "Country"))));
+    }
+
+    @Benchmark
+    public List<JsonDocument> takeFirstOfUnboundedReadDocuments() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, SNAPSHOT, namespace, "Address", Range.unbounded())
+                    .take(TAKE).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> takeFirstOfUnboundedFindDocument() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, SNAPSHOT, namespace, "Address", STATE, "Cancel", Range.unbounded())
+                    .take(TAKE).toList().blockingGet();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Deletes the root of a chain of nodes, each linking to the one before it. Run with {@link ScalingReport} using
+ * the depth parameter.
+ */
+public abstract class CascadeChainBenchmark extends CascadeDeleteBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int depth;
+
+    @Override
+    protected Flowable<JsonDocument> graph() {
+        return Flowable.range(1, depth)
+                .map(i -> node("chain" + i, i == 1 ? ROOT_ID : "chain" + (i - 1)));
+    }
+}
@@ -0,0 +1,109 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElementType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.createSpecificationAndRoot;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.objectNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.refNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.stringNode;
+
+/**
+ * Measures deleting the root of an incoming-link graph of Node documents, each linking to its parent, under each
+ * {@link PersistenceDeletePolicy}. The graph is rebuilt before every invocation, outside the measured time. With
+ * FAIL_IF_INCOMING_LINKS the delete is expected to fail, and the benchmark measures how fast the provider detects
+ * the incoming links. The allocation counter gives the bytes allocated by the benchmark thread for the deletes and
+ * the number of deletes, whose ratio shows providers that load the whole graph into the transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class CascadeDeleteBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final String ENTITY = "Node";
+    static final String ROOT_ID = "root";
+
+    @Param({"FAIL_IF_INCOMING_LINKS", "CASCADE_DELETE_ALL_INCOMING_LINKS_AND_NODES"})
+    public PersistenceDeletePolicy policy;
+
+    @Override
+    protected Specification buildSpecification() {
+        return createSpecificationAndRoot(Set.of(
+                objectNode(SpecificationElementType.MANAGED, ENTITY, Set.of(
+                        stringNode("name"),
+                        refNode("parent", Set.of(ENTITY))
+                ))),
+                "type Node @domain {\n" +
+                        "  name: String\n" +
+                        "  parent: Node @link\n" +
+                        "}"
+        );
+    }
+
+    /**
+     * @return the nodes of the graph, except the root.
+     */
+    protected abstract Flowable<JsonDocument> graph();
+
+    @Setup(Level.Invocation)
+    public void buildGraph() {
+        deleteAllEntities();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, node(ROOT_ID, null), specification).blockingAwait();
+        }
+        Ingest.ingest(persistence, specification, graph());
+    }
+
+    @Benchmark
+    public Throwable deleteAllDocumentVersions(AllocationCounter counter) {
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            return persistence.deleteAllDocumentVersions(tx, namespace, ENTITY, ROOT_ID, policy).blockingGet();
+        } finally {
+            counter.stop(start);
+        }
+    }
+
+    @Benchmark
+    public Throwable markDocumentDeleted(AllocationCounter counter) {
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            return persistence.markDocumentDeleted(tx, namespace, ENTITY, ROOT_ID, VERSION.plusDays(1), policy).blockingGet();
+        } finally {
+            counter.stop(start);
+        }
+    }
+
+    JsonDocument node(String id, String parentId) {
+        ObjectNode json = mapper.createObjectNode().put("name", id);
+        if (parentId != null) {
+            json.put("parent", "/" + ENTITY + "/" + parentId);
+        }
+        return new JsonDocument(new DocumentKey(namespace, ENTITY, id, VERSION), json);
+    }
+}
@@ -0,0 +1,22 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import org.openjdk.jmh.annotations.Param;
+
+import static java.lang.String.format;
+
+/**
+ * Deletes a hub node that all other nodes link to. Run with {@link ScalingReport} using the referrers parameter.
+ */
+public abstract class CascadeHubBenchmark extends CascadeDeleteBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int referrers;
+
+    @Override
+    protected Flowable<JsonDocument> graph() {
+        return Flowable.range(0, referrers)
+                .map(i -> node(format("referrer%06d", i), ROOT_ID));
+    }
+}
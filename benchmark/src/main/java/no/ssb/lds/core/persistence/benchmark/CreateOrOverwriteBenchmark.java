@@ -0,0 +1,108 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Compares ingest throughput of the single document overload of createOrOverwrite, called once per document, with
+ * the Flowable overload given the whole batch. Every invocation writes a batch of new Person documents linking to a
+ * fixed set of addresses in its own transaction. The documents counter gives the throughput per document.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class CreateOrOverwriteBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime TIMESTAMP = parse("2019-01-01T00:00:00.000Z");
+    static final int ADDRESSES = 100;
+    static final int PREVIOUS_ADDRESSES = 3;
+
+    @Param({"1", "10", "100", "1000"})
+    public int batchSize;
+
+    List<String> addressLinks;
+    List<JsonDocument> batch;
+    long sequence;
+
+    @Override
+    protected void populate() {
+        List<JsonDocument> addresses = new ArrayList<>();
+        addressLinks = new ArrayList<>();
+        for (int i = 0; i < ADDRESSES; i++) {
+            String entity = i % 10 == 0 ? "FunkyLongAddress" : "Address";
+            String id = format("address%03d", i);
+            addresses.add(new JsonDocument(new DocumentKey(namespace, entity, id, TIMESTAMP),
+                    createAddress("City " + i, "State " + i, "Country " + i)));
+            addressLinks.add("/" + entity + "/" + id);
+        }
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, Flowable.fromIterable(addresses), specification).blockingAwait();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            long n = sequence++;
+            List<String> previousAddresses = new ArrayList<>(PREVIOUS_ADDRESSES);
+            for (int j = 1; j <= PREVIOUS_ADDRESSES; j++) {
+                previousAddresses.add(addressLinks.get((int) ((n + j) % ADDRESSES)));
+            }
+            String id = format("person%010d", n);
+            batch.add(new JsonDocument(new DocumentKey(namespace, "Person", id, TIMESTAMP),
+                    createPerson("John " + n, "Smith", addressLinks.get((int) (n % ADDRESSES)),
+                            addressLinks.get((int) ((n * 7) % ADDRESSES)), previousAddresses)));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deletePersons() {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.deleteAllEntities(tx, namespace, "Person", specification).blockingAwait();
+        }
+    }
+
+    @Benchmark
+    public void createOrOverwriteOneByOne(DocumentCounter counter) {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            for (JsonDocument document : batch) {
+                persistence.createOrOverwrite(tx, document, specification).blockingAwait();
+            }
+        }
+        counter.documents += batch.size();
+    }
+
+    @Benchmark
+    public void createOrOverwriteFlowable(DocumentCounter counter) {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, Flowable.fromIterable(batch), specification).blockingAwait();
+        }
+        counter.documents += batch.size();
+    }
+}
@@ -0,0 +1,130 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+
+/**
+ * Measures the wall time of deleteAllEntities on an entity of the given number of documents with the given number
+ * of versions each. The entity is written again before every invocation, outside the measured time.
+ * <p>
+ * Next to the wall time the benchmark reports the time per deleted document version, the bytes allocated by the
+ * benchmark thread and the peak heap growth during the delete. The allocation and heap counters are totals over the
+ * measurement iterations, divide them by operations and deletes for the value per delete. Run with
+ * {@link ScalingReport} using the documents parameter: peak heap growth that follows the number of documents means
+ * the provider loads every key before it deletes, a streaming delete keeps it bounded.
+ * <p>
+ * The largest entity holds 10M document versions. With {@link no.ssb.lds.core.persistence.memory.MemoryPersistence}
+ * that takes about 10 GB of heap, and as it is written four times the benchmark runs for about 20 minutes. Providers
+ * that keep their data outside the JVM can add larger entities with -p documents=10000,100000,1000000,10000000.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public abstract class DeleteAllEntitiesBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime FIRST_VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final String ENTITY = "Address";
+
+    @Param({"10000", "100000", "1000000"})
+    public long documents;
+
+    @Param({"1", "10"})
+    public int versions;
+
+    long usedBeforeDelete;
+
+    @Setup(Level.Invocation)
+    public void writeEntity() {
+        Ingest.ingest(persistence, specification, Flowable.rangeLong(0, documents)
+                .concatMap(i -> Flowable.range(0, versions)
+                        .map(version -> new JsonDocument(new DocumentKey(namespace, ENTITY, format("address%010d", i),
+                                FIRST_VERSION.plusDays(version)), createAddress("City " + i, "State", "Country")))));
+        System.gc();
+        usedBeforeDelete = HeapCounter.resetPeakHeapUsage();
+    }
+
+    @Benchmark
+    public void deleteAllEntities(AllocationCounter allocations, DocumentCounter deleted, HeapCounter heap) {
+        long allocationStart = allocations.start();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.deleteAllEntities(tx, namespace, ENTITY, specification).blockingAwait();
+        } finally {
+            allocations.stop(allocationStart);
+            heap.stop(usedBeforeDelete);
+            deleted.documents += documents * versions;
+        }
+    }
+
+    /**
+     * Reports the peak heap growth of the deletes, measured as the highest usage of each heap memory pool during a
+     * delete above the usage before it, and the number of deletes. Both are totals, as JMH sums event counters over
+     * the measurement iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounter {
+
+        private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+
+        public long peakHeapGrowthBytes;
+        public long deletes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakHeapGrowthBytes = 0;
+            deletes = 0;
+        }
+
+        /**
+         * @return the current heap usage in bytes.
+         */
+        static long resetPeakHeapUsage() {
+            long used = 0;
+            for (MemoryPoolMXBean pool : HEAP_POOLS) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+            return used;
+        }
+
+        void stop(long usedBeforeDelete) {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : HEAP_POOLS) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeapGrowthBytes += Math.max(0, peak - usedBeforeDelete);
+            deletes++;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the number of documents processed next to the primary score, so that benchmarks operating on batches of
+ * different sizes can be compared per document.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class DocumentCounter {
+
+    public long documents;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        documents = 0;
+    }
+}
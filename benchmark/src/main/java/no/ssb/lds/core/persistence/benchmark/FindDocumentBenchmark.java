@@ -0,0 +1,128 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Measures findDocument latency as the searched entity grows. Each Person has a unique firstname, one of ten
+ * lastnames and a current address shared with 99 other persons. One FunkyLongAddress per hundred persons has a
+ * unique city of {@value #LONG_VALUE_LENGTH} characters, all sharing the same prefix.
+ * <p>
+ * Run with {@link ScalingReport} using the documents parameter. A provider with a usable index on path and value
+ * finds selective values at constant or logarithmic cost, linear growth means every find scans the entity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class FindDocumentBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final int LASTNAMES = 10;
+    static final int PERSONS_PER_ADDRESS = 100;
+    static final int LONG_VALUE_LENGTH = 4096;
+    static final int PAGE_SIZE = 10;
+
+    static final JsonNavigationPath FIRSTNAME = JsonNavigationPath.from("$.firstname");
+    static final JsonNavigationPath LASTNAME = JsonNavigationPath.from("$.lastname");
+    static final JsonNavigationPath CURRENT_ADDRESS = JsonNavigationPath.from("$.history.currentAddress");
+    static final JsonNavigationPath CITY = JsonNavigationPath.from("$.city");
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public long documents;
+
+    long addresses;
+    String longValuePrefix;
+
+    @Override
+    protected void populate() {
+        addresses = Math.max(1, documents / PERSONS_PER_ADDRESS);
+        longValuePrefix = "x".repeat(LONG_VALUE_LENGTH - 10);
+
+        Ingest.ingest(persistence, specification, Flowable.rangeLong(0, addresses)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", id("address", i), VERSION),
+                        createAddress("City " + i, "State", "Country"))));
+        Ingest.ingest(persistence, specification, Flowable.rangeLong(0, addresses)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "FunkyLongAddress", id("funkylongaddress", i), VERSION),
+                        createAddress(longValue(i), "State", "Country"))));
+        Ingest.ingest(persistence, specification, Flowable.rangeLong(0, documents)
+                .map(i -> {
+                    String address = "/Address/" + id("address", i % addresses);
+                    return new JsonDocument(new DocumentKey(namespace, "Person", id("person", i), VERSION),
+                            createPerson("First " + i, "Last " + (i % LASTNAMES), address, address, List.of()));
+                }));
+    }
+
+    /**
+     * Finds the single person with a random firstname.
+     */
+    @Benchmark
+    public List<JsonDocument> findSelectiveValue() {
+        return find("Person", FIRSTNAME, "First " + ThreadLocalRandom.current().nextLong(documents), Range.unbounded());
+    }
+
+    /**
+     * Finds a page of the tenth of the persons sharing a random lastname.
+     */
+    @Benchmark
+    public List<JsonDocument> findNonSelectiveValue() {
+        return find("Person", LASTNAME, "Last " + ThreadLocalRandom.current().nextInt(LASTNAMES), Range.first(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<JsonDocument> findMissingValue() {
+        return find("Person", FIRSTNAME, "Missing", Range.unbounded());
+    }
+
+    /**
+     * Finds the hundred persons living at a random address.
+     */
+    @Benchmark
+    public List<JsonDocument> findNestedPath() {
+        String address = "/Address/" + id("address", ThreadLocalRandom.current().nextLong(addresses));
+        return find("Person", CURRENT_ADDRESS, address, Range.unbounded());
+    }
+
+    @Benchmark
+    public List<JsonDocument> findLongValue() {
+        return find("FunkyLongAddress", CITY, longValue(ThreadLocalRandom.current().nextLong(addresses)), Range.unbounded());
+    }
+
+    List<JsonDocument> find(String entity, JsonNavigationPath path, String value, Range<String> range) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, SNAPSHOT, namespace, entity, path, value, range).toList().blockingGet();
+        }
+    }
+
+    String longValue(long i) {
+        return longValuePrefix + format("%010d", i);
+    }
+
+    static String id(String prefix, long i) {
+        return format("%s%010d", prefix, i);
+    }
+}
@@ -0,0 +1,109 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.core.persistence.test.DocumentGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hasNext and hasPrevious, called on every page render of a paging UI, at the first, middle and last id of
+ * an entity growing to 10M documents, each with a history of the given number of versions. The AtOldVersion
+ * benchmarks ask at the first version of the histories instead of after the latest. Run with {@link ScalingReport}
+ * using the documents parameter: the answer is a boolean, so cost should be constant or logarithmic, see
+ * {@link HasNextScalingTest} for a suite that fails otherwise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public abstract class HasNextBenchmark extends PersistenceBenchmark {
+
+    static final String ENTITY = "Address";
+
+    @Param({"1000", "100000", "10000000"})
+    public long documents;
+
+    @Param({"10"})
+    public int versions;
+
+    ZonedDateTime latest;
+    ZonedDateTime oldVersion;
+    String firstId;
+    String middleId;
+    String lastId;
+
+    @Override
+    protected void populate() {
+        DocumentGenerator generator = new DocumentGenerator(specification, namespace)
+                .documents(ENTITY, documents)
+                .versions(versions);
+        Ingest.ingest(persistence, specification, generator.generate(ENTITY));
+        latest = generator.version(versions);
+        oldVersion = generator.version(0).plusHours(12);
+        firstId = generator.id(ENTITY, 0);
+        middleId = generator.id(ENTITY, documents / 2);
+        lastId = generator.id(ENTITY, documents - 1);
+    }
+
+    @Benchmark
+    public boolean hasNextAtFirst() {
+        return hasNext(latest, firstId);
+    }
+
+    @Benchmark
+    public boolean hasNextAtMiddle() {
+        return hasNext(latest, middleId);
+    }
+
+    @Benchmark
+    public boolean hasNextAtLast() {
+        return hasNext(latest, lastId);
+    }
+
+    @Benchmark
+    public boolean hasNextAtOldVersion() {
+        return hasNext(oldVersion, middleId);
+    }
+
+    @Benchmark
+    public boolean hasPreviousAtFirst() {
+        return hasPrevious(latest, firstId);
+    }
+
+    @Benchmark
+    public boolean hasPreviousAtMiddle() {
+        return hasPrevious(latest, middleId);
+    }
+
+    @Benchmark
+    public boolean hasPreviousAtLast() {
+        return hasPrevious(latest, lastId);
+    }
+
+    @Benchmark
+    public boolean hasPreviousAtOldVersion() {
+        return hasPrevious(oldVersion, middleId);
+    }
+
+    boolean hasNext(ZonedDateTime snapshot, String id) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.hasNext(tx, snapshot, namespace, ENTITY, id).blockingGet();
+        }
+    }
+
+    boolean hasPrevious(ZonedDateTime snapshot, String id) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.hasPrevious(tx, snapshot, namespace, ENTITY, id).blockingGet();
+        }
+    }
+}
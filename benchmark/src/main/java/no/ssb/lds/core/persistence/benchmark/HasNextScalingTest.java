@@ -0,0 +1,141 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.test.DocumentGenerator;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls hasNext and hasPrevious at the first, middle and last id of a large and of a small entity, after the latest
+ * version and at the first version of every document's history, each call in its own read-only transaction. The
+ * answer is a boolean, so a call on the large entity may not take more than the tolerated ratio of the same call on
+ * the small one, a margin that logarithmic growth stays within and a provider counting rows does not.
+ * <p>
+ * Configured with the system properties lds.hasNext.documents (defaults to a million), lds.hasNext.versions,
+ * lds.hasNext.calls and lds.hasNext.tolerance.
+ * <p>
+ * Subclasses assign the persistence in their constructor or in a BeforeClass method. The data-set is written before
+ * the first test rather than in a BeforeClass method of this class, as TestNG runs those before the ones of the
+ * subclass.
+ */
+public abstract class HasNextScalingTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HasNextScalingTest.class);
+
+    static final String LARGE_ENTITY = "Address";
+    static final String SMALL_ENTITY = "FunkyLongAddress";
+    static final long SMALL_DOCUMENTS = 1000;
+
+    protected final String namespace;
+    protected final Specification specification = PersonAddressFixtures.specification();
+    protected final long documents = Long.getLong("lds.hasNext.documents", 1_000_000);
+    protected final int versions = Integer.getInteger("lds.hasNext.versions", 10);
+    protected final int calls = Integer.getInteger("lds.hasNext.calls", 1000);
+    protected final double tolerance = Double.parseDouble(System.getProperty("lds.hasNext.tolerance", "3.0"));
+    protected RxJsonPersistence persistence;
+
+    private DocumentGenerator generator;
+
+    protected HasNextScalingTest(String namespace) {
+        this.namespace = namespace;
+    }
+
+    @FunctionalInterface
+    interface Probe {
+        boolean call(Transaction transaction, ZonedDateTime snapshot, String entity, String id);
+    }
+
+    @BeforeMethod
+    public synchronized void populate() {
+        if (generator != null) {
+            return;
+        }
+        DocumentGenerator generator = new DocumentGenerator(specification, namespace)
+                .documents(LARGE_ENTITY, documents)
+                .documents(SMALL_ENTITY, SMALL_DOCUMENTS)
+                .versions(versions);
+        Ingest.deleteAll(persistence, specification, namespace);
+        Ingest.ingest(persistence, specification, generator.generate(SMALL_ENTITY));
+        Ingest.ingest(persistence, specification, generator.generate(LARGE_ENTITY));
+        this.generator = generator;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (generator != null) {
+            Ingest.deleteAll(persistence, specification, namespace);
+            generator = null;
+        }
+    }
+
+    @Test
+    public void thatHasNextDoesNotGrowWithEntitySize() {
+        check("hasNext", (transaction, snapshot, entity, id) ->
+                persistence.hasNext(transaction, snapshot, namespace, entity, id).blockingGet(), true, true, false);
+    }
+
+    @Test
+    public void thatHasPreviousDoesNotGrowWithEntitySize() {
+        check("hasPrevious", (transaction, snapshot, entity, id) ->
+                persistence.hasPrevious(transaction, snapshot, namespace, entity, id).blockingGet(), false, true, true);
+    }
+
+    /**
+     * @param atFirst the expected answer at the first id, likewise atMiddle and atLast.
+     */
+    private void check(String name, Probe probe, boolean atFirst, boolean atMiddle, boolean atLast) {
+        List<String> violations = new ArrayList<>();
+        ZonedDateTime[] snapshots = {generator.version(versions), generator.version(0).plusHours(12)};
+        String[] positions = {"first", "middle", "last"};
+        boolean[] expected = {atFirst, atMiddle, atLast};
+        for (ZonedDateTime snapshot : snapshots) {
+            for (int position = 0; position < positions.length; position++) {
+                double large = medianMicros(probe, snapshot, LARGE_ENTITY, documents, position, expected[position]);
+                double small = medianMicros(probe, snapshot, SMALL_ENTITY, SMALL_DOCUMENTS, position, expected[position]);
+                LOG.info("{} at {} id as of {}, median latency in us with {} documents: {}, with {} documents: {}",
+                        name, positions[position], snapshot, documents, large, SMALL_DOCUMENTS, small);
+                if (large > small * tolerance) {
+                    violations.add(String.format("%s at %s id as of %s: %.1f us with %d documents, %.1f us with %d",
+                            name, positions[position], snapshot, large, documents, small, SMALL_DOCUMENTS));
+                }
+            }
+        }
+        assertThat(violations)
+                .as("%s calls more than %.1f times slower with %d than with %d documents", name, tolerance, documents, SMALL_DOCUMENTS)
+                .isEmpty();
+    }
+
+    /**
+     * Calls the probe twice as many times as configured, the first half to warm up.
+     */
+    private double medianMicros(Probe probe, ZonedDateTime snapshot, String entity, long entityDocuments, int position, boolean expected) {
+        String id = generator.id(entity, position * (entityDocuments - 1) / 2);
+        long[] latencies = new long[calls];
+        for (int i = -calls; i < calls; i++) {
+            long start = System.nanoTime();
+            boolean answer;
+            try (Transaction transaction = persistence.createTransaction(true)) {
+                answer = probe.call(transaction, snapshot, entity, id);
+            }
+            if (i >= 0) {
+                latencies[i] = System.nanoTime() - start;
+            }
+            assertThat(answer).as("answer at %s as of %s", id, snapshot).isEqualTo(expected);
+        }
+        Arrays.sort(latencies);
+        return latencies[calls / 2] / 1000.0;
+    }
+}
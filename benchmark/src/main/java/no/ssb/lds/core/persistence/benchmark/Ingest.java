@@ -0,0 +1,43 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.test.IngestPipeline;
+
+/**
+ * Writes data-sets that are too large for a single transaction, see {@link IngestPipeline} for concurrent writes.
+ */
+public final class Ingest {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private Ingest() {
+    }
+
+    /**
+     * Writes the documents in batches, one batch at a time, each batch in its own transaction.
+     *
+     * @return the number of documents written.
+     */
+    public static long ingest(RxJsonPersistence persistence, Specification specification, Flowable<JsonDocument> documents, int batchSize) {
+        return new IngestPipeline(persistence, specification).batchSize(batchSize).ingest(documents).blockingGet();
+    }
+
+    public static long ingest(RxJsonPersistence persistence, Specification specification, Flowable<JsonDocument> documents) {
+        return ingest(persistence, specification, documents, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Deletes every entity of the specification from the namespace, one transaction per entity.
+     */
+    public static void deleteAll(RxJsonPersistence persistence, Specification specification, String namespace) {
+        for (String entity : specification.getManagedDomains()) {
+            try (Transaction transaction = persistence.createTransaction(false)) {
+                persistence.deleteAllEntities(transaction, namespace, entity, specification).blockingAwait();
+            }
+        }
+    }
+}
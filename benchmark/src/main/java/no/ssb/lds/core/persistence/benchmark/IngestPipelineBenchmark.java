@@ -0,0 +1,65 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.core.persistence.test.IngestPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+
+/**
+ * Measures the ingest throughput of an {@link IngestPipeline} in documents per second for every combination of
+ * batch size and concurrency, the curve to pick nightly load settings from. Each invocation writes
+ * {@value #DOCUMENTS} new addresses, the entity is emptied before every iteration. That is enough for 16 batches of
+ * the largest batch size, so every concurrency level has batches to run in parallel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class IngestPipelineBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final int DOCUMENTS = 160_000;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int batchSize;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int concurrency;
+
+    IngestPipeline pipeline;
+    long invocation;
+
+    @Setup(Level.Iteration)
+    public void emptyEntity() {
+        deleteAllEntities();
+        pipeline = new IngestPipeline(persistence, specification).batchSize(batchSize).concurrency(concurrency);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public long ingest() {
+        long first = invocation++ * DOCUMENTS;
+        return pipeline.ingest(Flowable.rangeLong(first, DOCUMENTS)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", format("address%012d", i), VERSION),
+                        createAddress("City " + i, "State", "Country")))).blockingGet();
+    }
+}
@@ -0,0 +1,158 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElementType;
+import no.ssb.lds.core.persistence.test.TestSpecificationElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.arrayNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.createSpecificationAndRoot;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.numericNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.objectNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.stringNode;
+
+/**
+ * Measures writing and reading a single document of 1, 10 and 50 MB, shaped as one long string, as a wide object with a
+ * property per kilobyte, or as a long array of small objects. The allocation counter reports the bytes allocated by the
+ * benchmark thread and the number of operations, whose ratio shows providers that copy or re-serialize the document
+ * several times per call. Allocations on other threads, e.g. in a driver's I/O threads, are not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class LargeDocumentBenchmark extends PersistenceBenchmark {
+
+    public enum Shape {
+        STRING, WIDE_OBJECT, LONG_ARRAY
+    }
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final String ENTITY = "LargeDocument";
+    static final String ID = "large";
+    static final int PROPERTY_SIZE = 1024;
+    static final int ITEM_TEXT_SIZE = 100;
+
+    @Param({"1", "10", "50"})
+    public int megabytes;
+
+    @Param({"STRING", "WIDE_OBJECT", "LONG_ARRAY"})
+    public Shape shape;
+
+    JsonDocument document;
+
+    int properties() {
+        return shape == Shape.WIDE_OBJECT ? megabytes * 1024 * 1024 / PROPERTY_SIZE : 1;
+    }
+
+    @Override
+    protected Specification buildSpecification() {
+        Set<TestSpecificationElement> wideProperties = new LinkedHashSet<>();
+        StringBuilder wideSdl = new StringBuilder();
+        for (int i = 0; i < properties(); i++) {
+            wideProperties.add(stringNode(property(i)));
+            wideSdl.append("  ").append(property(i)).append(": String\n");
+        }
+        return createSpecificationAndRoot(Set.of(
+                objectNode(SpecificationElementType.MANAGED, ENTITY, Set.of(
+                        stringNode("text"),
+                        objectNode("wide", wideProperties),
+                        arrayNode("items", objectNode("[]", Set.of(
+                                numericNode("index"),
+                                stringNode("text")
+                        )))
+                ))),
+                "type LargeDocument @domain {\n" +
+                        "  text: String\n" +
+                        "  wide: Wide\n" +
+                        "  items: [Item]\n" +
+                        "}\n" +
+                        "type Wide {\n" +
+                        wideSdl +
+                        "}\n" +
+                        "type Item {\n" +
+                        "  index: Int\n" +
+                        "  text: String\n" +
+                        "}"
+        );
+    }
+
+    @Override
+    protected void populate() {
+        long bytes = megabytes * 1024L * 1024L;
+        ObjectNode json = mapper.createObjectNode();
+        switch (shape) {
+            case STRING:
+                json.put("text", text(0, (int) bytes));
+                break;
+            case WIDE_OBJECT:
+                ObjectNode wide = json.putObject("wide");
+                for (int i = 0; i < properties(); i++) {
+                    wide.put(property(i), text(i, PROPERTY_SIZE));
+                }
+                break;
+            case LONG_ARRAY:
+                ArrayNode items = json.putArray("items");
+                for (int i = 0; i < bytes / ITEM_TEXT_SIZE; i++) {
+                    items.addObject().put("index", i).put("text", text(i, ITEM_TEXT_SIZE));
+                }
+                break;
+        }
+        document = new JsonDocument(new DocumentKey(namespace, ENTITY, ID, VERSION), json);
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, document, specification).blockingAwait();
+        }
+    }
+
+    @Benchmark
+    public void createOrOverwrite(AllocationCounter counter) {
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, document, specification).blockingAwait();
+        }
+        counter.stop(start);
+    }
+
+    @Benchmark
+    public JsonDocument readDocument(AllocationCounter counter) {
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocument(tx, VERSION, namespace, ENTITY, ID).blockingGet();
+        } finally {
+            counter.stop(start);
+        }
+    }
+
+    static String property(int i) {
+        return format("p%07d", i);
+    }
+
+    static String text(int seed, int length) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) ('a' + (seed + i) % 26);
+        }
+        return new String(text);
+    }
+}
@@ -0,0 +1,87 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Measures readLinkedDocuments as the number of links in $.history.previousAddresses[] of a single person grows to
+ * 10k. The time-to-first-item benchmark reads the first document of a page and cancels the rest, the drain
+ * benchmark reads a whole page starting after a random link, the documents counter gives the throughput per
+ * document. Run with {@link ScalingReport} using the links parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class LinkedDocumentsBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final JsonNavigationPath PREVIOUS_ADDRESSES = JsonNavigationPath.from("$.history.previousAddresses[]");
+    static final String SOURCE_ID = "source";
+    static final int PAGE_SIZE = 100;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int links;
+
+    @Override
+    protected void populate() {
+        Ingest.ingest(persistence, specification, Flowable.range(0, links)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", addressId(i), VERSION),
+                        createAddress("City " + i, "State", "Country"))));
+        List<String> previousAddresses = Flowable.range(0, links).map(i -> "/Address/" + addressId(i)).toList().blockingGet();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, new JsonDocument(new DocumentKey(namespace, "Person", SOURCE_ID, VERSION),
+                    createPerson("Source", "Person", previousAddresses.get(0), previousAddresses.get(0), previousAddresses)),
+                    specification).blockingAwait();
+        }
+    }
+
+    @Benchmark
+    public JsonDocument timeToFirstLinkedDocument() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readLinkedDocuments(tx, SNAPSHOT, namespace, "Person", SOURCE_ID, PREVIOUS_ADDRESSES,
+                    "Address", Range.first(PAGE_SIZE)).blockingFirst();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<JsonDocument> drainLinkedDocumentsPage(DocumentCounter counter) {
+        String after = addressId(ThreadLocalRandom.current().nextInt(links));
+        try (Transaction tx = persistence.createTransaction(true)) {
+            List<JsonDocument> page = persistence.readLinkedDocuments(tx, SNAPSHOT, namespace, "Person", SOURCE_ID,
+                    PREVIOUS_ADDRESSES, "Address", Range.firstAfter(PAGE_SIZE, after)).toList().blockingGet();
+            counter.documents += page.size();
+            return page;
+        }
+    }
+
+    static String addressId(int i) {
+        return format("address%010d", i);
+    }
+}
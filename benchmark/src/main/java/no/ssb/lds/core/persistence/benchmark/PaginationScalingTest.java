@@ -0,0 +1,145 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.test.DocumentGenerator;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks a large entity page by page with cursor ranges, {@link Range#firstAfter(int, Object)} forwards and
+ * {@link Range#lastBefore(int, Object)} backwards, each page in its own read-only transaction. The walk fails if
+ * the median page latency of the last tenth of the pages exceeds the median of the first tenth by more than the
+ * tolerated ratio, as a provider skipping over the preceding documents to find each page would.
+ * <p>
+ * Configured with the system properties lds.pagination.documents (defaults to a million),
+ * lds.pagination.pageSize and lds.pagination.tolerance.
+ * <p>
+ * Subclasses assign the persistence in their constructor or in a BeforeClass method. The data-set is written before
+ * the first test rather than in a BeforeClass method of this class, as TestNG runs those before the ones of the
+ * subclass.
+ */
+public abstract class PaginationScalingTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PaginationScalingTest.class);
+
+    static final String ENTITY = "Address";
+    static final int SEGMENTS = 10;
+
+    protected final String namespace;
+    protected final Specification specification = PersonAddressFixtures.specification();
+    protected final long documents = Long.getLong("lds.pagination.documents", 1_000_000);
+    protected final int pageSize = Integer.getInteger("lds.pagination.pageSize", 100);
+    protected final double tolerance = Double.parseDouble(System.getProperty("lds.pagination.tolerance", "2.0"));
+    protected RxJsonPersistence persistence;
+
+    private ZonedDateTime snapshot;
+
+    protected PaginationScalingTest(String namespace) {
+        this.namespace = namespace;
+    }
+
+    @BeforeMethod
+    public synchronized void populate() {
+        if (snapshot != null) {
+            return;
+        }
+        DocumentGenerator generator = new DocumentGenerator(specification, namespace).documents(ENTITY, documents);
+        Ingest.deleteAll(persistence, specification, namespace);
+        Ingest.ingest(persistence, specification, generator.generate(ENTITY));
+        snapshot = generator.version(1);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (snapshot != null) {
+            Ingest.deleteAll(persistence, specification, namespace);
+            snapshot = null;
+        }
+    }
+
+    @Test
+    public void thatFirstAfterPagesDoNotSlowDown() {
+        walk("firstAfter", cursor -> cursor == null ? Range.first(pageSize) : Range.firstAfter(pageSize, cursor), 1);
+    }
+
+    @Test
+    public void thatLastBeforePagesDoNotSlowDown() {
+        walk("lastBefore", cursor -> cursor == null ? Range.last(pageSize) : Range.lastBefore(pageSize, cursor), -1);
+    }
+
+    /**
+     * Walks the entity twice, the first time to warm up, and checks the page latencies of the second walk.
+     *
+     * @param direction 1 if the ids of the walk must increase, -1 if they must decrease.
+     */
+    private void walk(String name, Function<String, Range<String>> nextPage, int direction) {
+        walk(nextPage, direction);
+        long[] latencies = walk(nextPage, direction);
+
+        double[] medians = new double[SEGMENTS];
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            int from = Math.min(segment * latencies.length / SEGMENTS, latencies.length - 1);
+            int to = Math.max(from + 1, (segment + 1) * latencies.length / SEGMENTS);
+            medians[segment] = median(Arrays.copyOfRange(latencies, from, to)) / 1000.0;
+        }
+        LOG.info("{} pages of {} with {}, median latency in us per tenth: {}", latencies.length, pageSize, name, Arrays.toString(medians));
+
+        assertThat(medians[SEGMENTS - 1])
+                .as("median %s page latency of the last tenth of %d pages compared to the first tenth", name, latencies.length)
+                .isLessThanOrEqualTo(medians[0] * tolerance);
+    }
+
+    /**
+     * @return the latency of each page in nanoseconds.
+     */
+    private long[] walk(Function<String, Range<String>> nextPage, int direction) {
+        long[] latencies = new long[(int) (documents / pageSize + 2)];
+        int pages = 0;
+        long read = 0;
+        String cursor = null;
+        while (true) {
+            long start = System.nanoTime();
+            List<JsonDocument> page;
+            try (Transaction transaction = persistence.createTransaction(true)) {
+                page = persistence.readDocuments(transaction, snapshot, namespace, ENTITY, nextPage.apply(cursor))
+                        .toList().blockingGet();
+            }
+            latencies[pages++] = System.nanoTime() - start;
+
+            for (JsonDocument document : page) {
+                String id = document.key().id();
+                if (cursor != null) {
+                    assertThat(Integer.signum(id.compareTo(cursor))).as("order of id %s after %s", id, cursor).isEqualTo(direction);
+                }
+                cursor = id;
+            }
+            read += page.size();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        assertThat(read).as("documents read page by page").isEqualTo(documents);
+        return Arrays.copyOf(latencies, pages);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,86 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.metrics.InstrumentedPersistence;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * Base state of all benchmarks in the kit. A persistence-provider plugs in by extending a concrete benchmark and
+ * implementing {@link #createPersistence()}, the same way it assigns the persistence field of a
+ * PersistenceIntegrationTest subclass. Providers must compile their subclasses with the JMH annotation processor.
+ * <p>
+ * With the system property lds.metrics set to true the persistence is wrapped in an {@link InstrumentedPersistence}
+ * and its metrics are logged at the end of each trial. This is off by default, as the instrumentation adds to the
+ * measured cost.
+ */
+@State(Scope.Benchmark)
+public abstract class PersistenceBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistenceBenchmark.class);
+
+    protected final String namespace;
+    protected Specification specification;
+    protected RxJsonPersistence persistence;
+
+    protected PersistenceBenchmark(String namespace) {
+        this.namespace = namespace;
+    }
+
+    protected PersistenceBenchmark() {
+        this("benchmark");
+    }
+
+    protected abstract RxJsonPersistence createPersistence();
+
+    protected Specification buildSpecification() {
+        return PersonAddressFixtures.specification();
+    }
+
+    @Setup
+    public void setupPersistence() {
+        specification = buildSpecification();
+        persistence = createPersistence();
+        if (Boolean.getBoolean("lds.metrics")) {
+            persistence = InstrumentedPersistence.instrument(persistence);
+        }
+        deleteAllEntities();
+        populate();
+    }
+
+    /**
+     * Loads the data-set the benchmark runs against. Called once per trial, after the store has been emptied.
+     */
+    protected void populate() {
+    }
+
+    @TearDown
+    public void tearDownPersistence() {
+        deleteAllEntities();
+        persistence.close();
+        if (persistence instanceof InstrumentedPersistence) {
+            LOG.info("Persistence metrics of {}:\n{}", getClass().getSimpleName(), ((InstrumentedPersistence) persistence).metrics());
+        }
+    }
+
+    protected void deleteAllEntities() {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            for (String entity : managedEntities()) {
+                persistence.deleteAllEntities(tx, namespace, entity, specification).blockingAwait();
+            }
+        }
+    }
+
+    protected Set<String> managedEntities() {
+        return specification.getManagedDomains();
+    }
+}
@@ -0,0 +1,82 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+
+/**
+ * Measures reads against a fixed set of {@value #DOCUMENTS} addresses, each read in its own read-only transaction.
+ * Run with {@link ThreadScalingReport} to compare the throughput of 1 up to the number of processors concurrent
+ * readers: a provider that serializes readers on a shared lock or connection does not gain throughput with more
+ * readers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class ReadTransactionBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final JsonNavigationPath CITY = JsonNavigationPath.from("$.city");
+    static final int DOCUMENTS = 10000;
+    static final int PAGE_SIZE = 10;
+
+    @Override
+    protected void populate() {
+        Ingest.ingest(persistence, specification, Flowable.range(0, DOCUMENTS)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", id(i), VERSION),
+                        createAddress("City " + i, "State", "Country"))));
+    }
+
+    @Benchmark
+    public JsonDocument readDocument() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocument(tx, SNAPSHOT, namespace, "Address", id(random())).blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocuments() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, SNAPSHOT, namespace, "Address", Range.firstAfter(PAGE_SIZE, id(random())))
+                    .toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> findDocument() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, SNAPSHOT, namespace, "Address", CITY, "City " + random(), Range.unbounded())
+                    .toList().blockingGet();
+        }
+    }
+
+    static int random() {
+        return ThreadLocalRandom.current().nextInt(DOCUMENTS);
+    }
+
+    static String id(int i) {
+        return format("address%05d", i);
+    }
+}
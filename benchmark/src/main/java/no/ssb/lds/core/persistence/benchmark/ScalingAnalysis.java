@@ -0,0 +1,197 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Classifies how the cost of an operation grows with the size of the data it operates on. The cost is fitted as a
+ * fixed cost plus a marginal cost growing with log(size), size and size squared, and the growth is that of the best
+ * fit, or constant if the fitted cost grows by less than {@value #CONSTANT_GROWTH_LIMIT} times over the measured
+ * sizes. A fixed per-call overhead therefore does not hide linear growth, as it would in the slope of log(cost)
+ * against log(size). The fits are weighted by the inverse square of the cost, so every size counts alike.
+ * <p>
+ * With only two sizes every fit is exact, and the growth is classified by the slope of log(cost) against log(size)
+ * instead: 0 means constant cost, 1 means cost proportional to size.
+ */
+public final class ScalingAnalysis {
+
+    public enum Growth {
+        CONSTANT, LOGARITHMIC, LINEAR, SUPERLINEAR;
+
+        public boolean isSublinear() {
+            return this == CONSTANT || this == LOGARITHMIC;
+        }
+    }
+
+    static final double CONSTANT_GROWTH_LIMIT = 1.5;
+    static final double CONSTANT_EXPONENT_LIMIT = 0.1;
+    static final double LOGARITHMIC_EXPONENT_LIMIT = 0.5;
+    static final double LINEAR_EXPONENT_LIMIT = 1.5;
+
+    private final SortedMap<Long, Double> costBySize;
+    private final double exponent;
+    private final Fit fit;
+
+    private ScalingAnalysis(SortedMap<Long, Double> costBySize, double exponent, Fit fit) {
+        this.costBySize = costBySize;
+        this.exponent = exponent;
+        this.fit = fit;
+    }
+
+    /**
+     * @param costBySize the measured cost (e.g. average latency) of the operation for each data size.
+     */
+    public static ScalingAnalysis of(Map<Long, Double> costBySize) {
+        if (costBySize.size() < 2) {
+            throw new IllegalArgumentException("At least two sizes are needed to analyse scaling, got: " + costBySize.keySet());
+        }
+        SortedMap<Long, Double> sorted = Collections.unmodifiableSortedMap(new TreeMap<>(costBySize));
+        int n = sorted.size();
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (Map.Entry<Long, Double> entry : sorted.entrySet()) {
+            if (entry.getKey() <= 0 || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Sizes and costs must be positive, got: " + entry);
+            }
+            double x = Math.log(entry.getKey());
+            double y = Math.log(entry.getValue());
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double exponent = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+
+        Fit best = null;
+        for (Growth growth : new Growth[]{Growth.LOGARITHMIC, Growth.LINEAR, Growth.SUPERLINEAR}) {
+            Fit fit = Fit.of(sorted, growth);
+            if (best == null || fit.residual < best.residual) {
+                best = fit;
+            }
+        }
+        return new ScalingAnalysis(sorted, exponent, best);
+    }
+
+    public SortedMap<Long, Double> costBySize() {
+        return costBySize;
+    }
+
+    /**
+     * @return the slope of log(cost) against log(size).
+     */
+    public double exponent() {
+        return exponent;
+    }
+
+    /**
+     * @return the fitted cost that does not grow with size.
+     */
+    public double fixedCost() {
+        return fit.fixed;
+    }
+
+    public Growth growth() {
+        if (costBySize.size() < 3) {
+            if (exponent < CONSTANT_EXPONENT_LIMIT) {
+                return Growth.CONSTANT;
+            }
+            if (exponent < LOGARITHMIC_EXPONENT_LIMIT) {
+                return Growth.LOGARITHMIC;
+            }
+            if (exponent < LINEAR_EXPONENT_LIMIT) {
+                return Growth.LINEAR;
+            }
+            return Growth.SUPERLINEAR;
+        }
+        double fittedGrowth = fit.cost(costBySize.lastKey()) / fit.cost(costBySize.firstKey());
+        return fittedGrowth < CONSTANT_GROWTH_LIMIT ? Growth.CONSTANT : fit.growth;
+    }
+
+    /**
+     * @return the cost at the largest size divided by the cost at the smallest size.
+     */
+    public double growthFactor() {
+        return costBySize.get(costBySize.lastKey()) / costBySize.get(costBySize.firstKey());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (fitted %s, exponent %.2f, cost x%.1f from size %d to %d) %s",
+                growth(), fit, exponent, growthFactor(), costBySize.firstKey(), costBySize.lastKey(), costBySize);
+    }
+
+    /**
+     * A weighted least-squares fit of cost = fixed + marginal * f(size), with neither term negative.
+     */
+    static final class Fit {
+
+        final Growth growth;
+        final DoubleUnaryOperator f;
+        final double fixed;
+        final double marginal;
+        final double residual;
+
+        Fit(Growth growth, DoubleUnaryOperator f, double fixed, double marginal, double residual) {
+            this.growth = growth;
+            this.f = f;
+            this.fixed = fixed;
+            this.marginal = marginal;
+            this.residual = residual;
+        }
+
+        static Fit of(SortedMap<Long, Double> costBySize, Growth growth) {
+            DoubleUnaryOperator f = function(growth);
+            double sumW = 0, sumWX = 0, sumWY = 0, sumWXX = 0, sumWXY = 0;
+            for (Map.Entry<Long, Double> entry : costBySize.entrySet()) {
+                double x = f.applyAsDouble(entry.getKey());
+                double y = entry.getValue();
+                double w = 1 / (y * y);
+                sumW += w;
+                sumWX += w * x;
+                sumWY += w * y;
+                sumWXX += w * x * x;
+                sumWXY += w * x * y;
+            }
+            double marginal = (sumW * sumWXY - sumWX * sumWY) / (sumW * sumWXX - sumWX * sumWX);
+            double fixed = (sumWY - marginal * sumWX) / sumW;
+            if (marginal < 0) {
+                marginal = 0;
+                fixed = sumWY / sumW;
+            } else if (fixed < 0) {
+                fixed = 0;
+                marginal = sumWXY / sumWXX;
+            }
+            double residual = 0;
+            for (Map.Entry<Long, Double> entry : costBySize.entrySet()) {
+                double error = (entry.getValue() - fixed - marginal * f.applyAsDouble(entry.getKey())) / entry.getValue();
+                residual += error * error;
+            }
+            return new Fit(growth, f, fixed, marginal, residual);
+        }
+
+        static DoubleUnaryOperator function(Growth growth) {
+            switch (growth) {
+                case LOGARITHMIC:
+                    return Math::log;
+                case LINEAR:
+                    return size -> size;
+                case SUPERLINEAR:
+                    return size -> size * size;
+                default:
+                    throw new IllegalArgumentException("No fit for " + growth);
+            }
+        }
+
+        double cost(long size) {
+            return fixed + marginal * f.applyAsDouble(size);
+        }
+
+        @Override
+        public String toString() {
+            String term = growth == Growth.LOGARITHMIC ? "log(n)" : growth == Growth.LINEAR ? "n" : "n^2";
+            return String.format("%.3g + %.3g * %s", fixed, marginal, term);
+        }
+    }
+}
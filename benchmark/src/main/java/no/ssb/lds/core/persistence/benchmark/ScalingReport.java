@@ -0,0 +1,81 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a benchmark that is parameterized by data size and reports how each of its methods scales with that size.
+ * A benchmark with other parameters as well gets one series per method and combination of their values, so that a
+ * method is only compared with itself at the same values. Methods whose cost grows linearly or worse are logged as
+ * warnings.
+ */
+public final class ScalingReport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScalingReport.class);
+
+    private ScalingReport() {
+    }
+
+    /**
+     * @param benchmark the concrete (provider specific) benchmark class to run.
+     * @param sizeParam the name of the numeric JMH parameter holding the data size.
+     * @return the scaling analysis of each benchmark method, keyed by method name followed by the values of the other
+     * parameters, for example {@code markDocumentDeleted[policy=FAIL_IF_INCOMING_LINKS]}.
+     */
+    public static Map<String, ScalingAnalysis> run(Class<?> benchmark, String sizeParam) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include("^" + Pattern.quote(benchmark.getName()) + "\\.")
+                .build()).run();
+        return analyse(results, sizeParam);
+    }
+
+    public static Map<String, ScalingAnalysis> analyse(Collection<RunResult> results, String sizeParam) {
+        Map<String, Map<Long, Double>> costBySizeBySeries = new TreeMap<>();
+        for (RunResult result : results) {
+            long size = Long.parseLong(result.getParams().getParam(sizeParam));
+            double score = result.getPrimaryResult().getScore();
+            double cost = result.getParams().getMode() == Mode.Throughput ? 1 / score : score;
+            costBySizeBySeries.computeIfAbsent(series(result.getParams(), sizeParam), s -> new TreeMap<>()).put(size, cost);
+        }
+        Map<String, ScalingAnalysis> analysisBySeries = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Long, Double>> entry : costBySizeBySeries.entrySet()) {
+            ScalingAnalysis analysis = ScalingAnalysis.of(entry.getValue());
+            if (analysis.growth().isSublinear()) {
+                LOG.info("{} scales with {}: {}", entry.getKey(), sizeParam, analysis);
+            } else {
+                LOG.warn("{} scales with {}: {}", entry.getKey(), sizeParam, analysis);
+            }
+            analysisBySeries.put(entry.getKey(), analysis);
+        }
+        return analysisBySeries;
+    }
+
+    /**
+     * @return the method name, followed by the values of the parameters other than the size in brackets if there
+     * are any.
+     */
+    static String series(BenchmarkParams params, String sizeParam) {
+        String benchmark = params.getBenchmark();
+        String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        StringJoiner series = new StringJoiner(", ", method + "[", "]").setEmptyValue(method);
+        for (String key : params.getParamsKeys()) {
+            if (!key.equals(sizeParam)) {
+                series.add(key + "=" + params.getParam(key));
+            }
+        }
+        return series.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.core.persistence.test.SyntheticSpecificationBuilder;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link SchemaShapeBenchmark} on a schema of ten scalar properties per level, nested from 1 to 50 levels deep,
+ * for {@code ScalingReport.run(MyBenchmark.class, "depth")}.
+ */
+public abstract class SchemaDepthBenchmark extends SchemaShapeBenchmark {
+
+    @Param({"1", "5", "20", "50"})
+    public int depth;
+
+    @Override
+    protected SyntheticSpecificationBuilder schema() {
+        return new SyntheticSpecificationBuilder().width(10).depth(depth);
+    }
+}
@@ -0,0 +1,119 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.test.DocumentGenerator;
+import no.ssb.lds.core.persistence.test.SyntheticSpecificationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static no.ssb.lds.core.persistence.test.SyntheticSpecificationBuilder.TARGET;
+
+/**
+ * Measures writing, reading and finding documents of a {@link SyntheticSpecificationBuilder} schema, for
+ * {@link SchemaWidthBenchmark} and {@link SchemaDepthBenchmark} to grow in one dimension each. The data-set is kept
+ * small and fixed, so the cost that grows is the provider's handling of the schema and its paths, e.g. flattening
+ * documents into one row or node per path. findDocument matches on the first property at the deepest level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class SchemaShapeBenchmark extends PersistenceBenchmark {
+
+    static final int DOCUMENTS = 100;
+    static final int TARGETS = 100;
+    static final int ARRAYS = 2;
+    static final int REFS = 20;
+
+    SyntheticSpecificationBuilder schema;
+    DocumentGenerator generator;
+    List<JsonDocument> documents;
+    JsonNavigationPath findPath;
+    String findValue;
+
+    /**
+     * @return the schema to benchmark, with its width and depth set from the benchmark parameters.
+     */
+    protected abstract SyntheticSpecificationBuilder schema();
+
+    @Override
+    protected Specification buildSpecification() {
+        schema = schema().arrays(ARRAYS).refs(REFS);
+        return schema.build();
+    }
+
+    @Override
+    protected void populate() {
+        generator = new DocumentGenerator(specification, namespace)
+                .documents(schema.entity(), DOCUMENTS)
+                .documents(TARGET, TARGETS)
+                .refFanOut(3)
+                .arraySize(3);
+        documents = generator.generate(schema.entity()).toList().blockingGet();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, generator.generate(TARGET), specification).blockingAwait();
+            persistence.createOrOverwrite(tx, Flowable.fromIterable(documents), specification).blockingAwait();
+        }
+        findPath = JsonNavigationPath.from(schema.deepestPath());
+        findValue = documents.get(DOCUMENTS / 2).jackson().at(schema.deepestPath().substring(1).replace('.', '/')).textValue();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        final SplittableRandom random = new SplittableRandom(1);
+
+        int next() {
+            return random.nextInt(DOCUMENTS);
+        }
+    }
+
+    @Benchmark
+    public void createOrOverwrite(Cursor cursor, AllocationCounter counter) {
+        JsonDocument document = documents.get(cursor.next());
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, document, specification).blockingAwait();
+        }
+        counter.stop(start);
+    }
+
+    @Benchmark
+    public JsonDocument readDocument(Cursor cursor, AllocationCounter counter) {
+        JsonDocument document = documents.get(cursor.next());
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocument(tx, document.key().timestamp(), namespace, schema.entity(), document.key().id()).blockingGet();
+        } finally {
+            counter.stop(start);
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> findDocument(AllocationCounter counter) {
+        long start = counter.start();
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, generator.version(0), namespace, schema.entity(), findPath, findValue, Range.unbounded()).toList().blockingGet();
+        } finally {
+            counter.stop(start);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.core.persistence.test.SyntheticSpecificationBuilder;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link SchemaShapeBenchmark} on a flat schema growing from 10 to 5000 scalar properties, for
+ * {@code ScalingReport.run(MyBenchmark.class, "width")}.
+ */
+public abstract class SchemaWidthBenchmark extends SchemaShapeBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int width;
+
+    @Override
+    protected SyntheticSpecificationBuilder schema() {
+        return new SyntheticSpecificationBuilder().width(width);
+    }
+}
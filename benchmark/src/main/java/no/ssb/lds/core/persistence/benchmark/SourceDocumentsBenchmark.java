@@ -0,0 +1,86 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Measures readSourceDocuments on a popular address as the number of persons linking to it through
+ * $.history.previousAddresses[] grows to a million. The time-to-first-item benchmark reads the first document of a
+ * page and cancels the rest, the drain benchmark reads a whole page starting after a random person, the documents
+ * counter gives the throughput per document. Run with {@link ScalingReport} using the referrers parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class SourceDocumentsBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final JsonNavigationPath PREVIOUS_ADDRESSES = JsonNavigationPath.from("$.history.previousAddresses[]");
+    static final String TARGET_ID = "popular";
+    static final String TARGET_LINK = "/Address/" + TARGET_ID;
+    static final int PAGE_SIZE = 100;
+
+    @Param({"100", "10000", "1000000"})
+    public int referrers;
+
+    @Override
+    protected void populate() {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, new JsonDocument(new DocumentKey(namespace, "Address", TARGET_ID, VERSION),
+                    createAddress("Popular City", "State", "Country")), specification).blockingAwait();
+        }
+        Ingest.ingest(persistence, specification, Flowable.range(0, referrers)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Person", personId(i), VERSION),
+                        createPerson("First " + i, "Last", TARGET_LINK, TARGET_LINK, List.of(TARGET_LINK)))));
+    }
+
+    @Benchmark
+    public JsonDocument timeToFirstSourceDocument() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readSourceDocuments(tx, SNAPSHOT, namespace, "Address", TARGET_ID, PREVIOUS_ADDRESSES,
+                    "Person", Range.first(PAGE_SIZE)).blockingFirst();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<JsonDocument> drainSourceDocumentsPage(DocumentCounter counter) {
+        String after = personId(ThreadLocalRandom.current().nextInt(referrers));
+        try (Transaction tx = persistence.createTransaction(true)) {
+            List<JsonDocument> page = persistence.readSourceDocuments(tx, SNAPSHOT, namespace, "Address", TARGET_ID,
+                    PREVIOUS_ADDRESSES, "Person", Range.firstAfter(PAGE_SIZE, after)).toList().blockingGet();
+            counter.documents += page.size();
+            return page;
+        }
+    }
+
+    static String personId(int i) {
+        return format("person%010d", i);
+    }
+}
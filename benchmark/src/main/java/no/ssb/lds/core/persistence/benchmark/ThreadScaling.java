@@ -0,0 +1,59 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The throughput of an operation for each number of concurrent threads, and the scaling efficiency derived from it:
+ * the throughput of n threads divided by n times the throughput of one thread. An efficiency of 1 means perfect
+ * scaling, 1/n means the threads are fully serialized.
+ */
+public final class ThreadScaling {
+
+    private final SortedMap<Integer, Double> throughputByThreads;
+
+    private ThreadScaling(SortedMap<Integer, Double> throughputByThreads) {
+        this.throughputByThreads = throughputByThreads;
+    }
+
+    /**
+     * @param throughputByThreads the total throughput of all threads, for each number of threads including one.
+     */
+    public static ThreadScaling of(Map<Integer, Double> throughputByThreads) {
+        if (!throughputByThreads.containsKey(1)) {
+            throw new IllegalArgumentException("The throughput of a single thread is needed, got: " + throughputByThreads.keySet());
+        }
+        return new ThreadScaling(Collections.unmodifiableSortedMap(new TreeMap<>(throughputByThreads)));
+    }
+
+    public SortedMap<Integer, Double> throughputByThreads() {
+        return throughputByThreads;
+    }
+
+    public double efficiency(int threads) {
+        return throughputByThreads.get(threads) / (threads * throughputByThreads.get(1));
+    }
+
+    public int maxThreads() {
+        return throughputByThreads.lastKey();
+    }
+
+    /**
+     * @return the efficiency at the highest number of threads measured.
+     */
+    public double efficiency() {
+        return efficiency(maxThreads());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, Double> entry : throughputByThreads.entrySet()) {
+            sb.append(sb.length() == 0 ? "" : ", ")
+                    .append(String.format("%d threads %.1f ops/s (%.0f%%)", entry.getKey(), entry.getValue(), efficiency(entry.getKey()) * 100));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a benchmark with an increasing number of threads and reports how the throughput of each of its methods
+ * scales. Methods whose efficiency at the highest number of threads is below {@value #MIN_EFFICIENCY} are logged
+ * as warnings.
+ */
+public final class ThreadScalingReport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadScalingReport.class);
+
+    static final double MIN_EFFICIENCY = 0.5;
+
+    private ThreadScalingReport() {
+    }
+
+    /**
+     * Runs the benchmark with 1, 2, 4 and so on up to the number of available processors threads.
+     *
+     * @param benchmark the concrete (provider specific) benchmark class to run.
+     * @return the thread scaling of each benchmark method, keyed by method name.
+     */
+    public static Map<String, ThreadScaling> run(Class<?> benchmark) throws RunnerException {
+        return run(benchmark, threadCounts(Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static Map<String, ThreadScaling> run(Class<?> benchmark, List<Integer> threadCounts) throws RunnerException {
+        Map<Integer, Collection<RunResult>> resultsByThreads = new TreeMap<>();
+        for (int threads : threadCounts) {
+            resultsByThreads.put(threads, new Runner(new OptionsBuilder()
+                    .include("^" + Pattern.quote(benchmark.getName()) + "\\.")
+                    .threads(threads)
+                    .build()).run());
+        }
+        return analyse(resultsByThreads);
+    }
+
+    /**
+     * @return 1 and the powers of two below the number of processors, followed by the number of processors.
+     */
+    static List<Integer> threadCounts(int processors) {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(processors);
+        return threadCounts;
+    }
+
+    public static Map<String, ThreadScaling> analyse(Map<Integer, Collection<RunResult>> resultsByThreads) {
+        Map<String, Map<Integer, Double>> throughputByThreadsByMethod = new TreeMap<>();
+        for (Map.Entry<Integer, Collection<RunResult>> entry : resultsByThreads.entrySet()) {
+            for (RunResult result : entry.getValue()) {
+                String benchmark = result.getParams().getBenchmark();
+                String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+                double score = result.getPrimaryResult().getScore();
+                double throughput = result.getParams().getMode() == Mode.Throughput ? score : entry.getKey() / score;
+                throughputByThreadsByMethod.computeIfAbsent(method, m -> new TreeMap<>()).put(entry.getKey(), throughput);
+            }
+        }
+        Map<String, ThreadScaling> scalingByMethod = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Integer, Double>> entry : throughputByThreadsByMethod.entrySet()) {
+            ThreadScaling scaling = ThreadScaling.of(entry.getValue());
+            if (scaling.efficiency() >= MIN_EFFICIENCY) {
+                LOG.info("{} scales with threads: {}", entry.getKey(), scaling);
+            } else {
+                LOG.warn("{} scales with threads: {}", entry.getKey(), scaling);
+            }
+            scalingByMethod.put(entry.getKey(), scaling);
+        }
+        return scalingByMethod;
+    }
+}
@@ -0,0 +1,179 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Measures point-in-time queries over a population with interleaved version histories, e.g. "the population as of
+ * 2015-01-01". The versions of each person are spread over twenty years, every person at its own days, and every
+ * tenth person has a deletion marker half a day after its middle version, so it is missing from snapshots until its
+ * next version. Each query resolves the snapshot at one of {@value #SNAPSHOTS} random historical timestamps, the
+ * AtLatest benchmarks query after the last version for comparison with current-time reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class TimeTravelBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime FIRST_DAY = parse("2000-01-01T00:00:00.000Z");
+    static final int DAYS = 20 * 365;
+    static final ZonedDateTime LATEST = FIRST_DAY.plusDays(DAYS);
+    static final int SNAPSHOTS = 4096;
+    static final int ADDRESSES = 100;
+    static final int PREVIOUS_ADDRESSES = 3;
+    static final int LASTNAMES = 100;
+    static final int PAGE_SIZE = 100;
+    static final JsonNavigationPath LASTNAME = JsonNavigationPath.from("$.lastname");
+    static final JsonNavigationPath PREVIOUS_ADDRESSES_PATH = JsonNavigationPath.from("$.history.previousAddresses[]");
+
+    @Param({"1000", "10000"})
+    public int persons;
+
+    @Param({"1", "10", "100"})
+    public int versions;
+
+    ZonedDateTime[] snapshots;
+
+    @Override
+    protected void populate() {
+        Ingest.ingest(persistence, specification, Flowable.range(0, ADDRESSES)
+                .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", addressId(i), FIRST_DAY),
+                        createAddress("City " + i, "State", "Country"))));
+        Ingest.ingest(persistence, specification, Flowable.range(0, persons)
+                .concatMapIterable(this::personVersions));
+        Flowable.range(0, persons)
+                .filter(i -> i % 10 == 0)
+                .buffer(Ingest.DEFAULT_BATCH_SIZE)
+                .blockingForEach(batch -> {
+                    try (Transaction tx = persistence.createTransaction(false)) {
+                        for (int i : batch) {
+                            persistence.markDocumentDeleted(tx, namespace, "Person", personId(i),
+                                    version(i, (versions - 1) / 2).plusHours(12), PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+                        }
+                    }
+                });
+
+        SplittableRandom random = new SplittableRandom(1);
+        snapshots = new ZonedDateTime[SNAPSHOTS];
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            snapshots[i] = FIRST_DAY.plusMinutes(random.nextLong(DAYS * 24L * 60L));
+        }
+    }
+
+    List<JsonDocument> personVersions(int i) {
+        List<JsonDocument> personVersions = new ArrayList<>(versions);
+        for (int v = 0; v < versions; v++) {
+            List<String> previousAddresses = new ArrayList<>(PREVIOUS_ADDRESSES);
+            for (int j = 1; j <= PREVIOUS_ADDRESSES; j++) {
+                previousAddresses.add("/Address/" + addressId((i + v + j * 31) % ADDRESSES));
+            }
+            String currentAddress = "/Address/" + addressId((i + v) % ADDRESSES);
+            personVersions.add(new JsonDocument(new DocumentKey(namespace, "Person", personId(i), version(i, v)),
+                    createPerson("Person " + i + " (" + v + ")", lastname(i + v), currentAddress, currentAddress, previousAddresses)));
+        }
+        return personVersions;
+    }
+
+    /**
+     * Spreads the versions over {@link #DAYS}, each in its own slot, at a day within the slot that differs between
+     * persons.
+     */
+    ZonedDateTime version(int i, int v) {
+        int slot = DAYS / versions;
+        return FIRST_DAY.plusDays(v * slot + Math.floorMod(i * 7919L, slot));
+    }
+
+    ZonedDateTime randomSnapshot() {
+        return snapshots[ThreadLocalRandom.current().nextInt(SNAPSHOTS)];
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentsPage() {
+        return readDocumentsPageAt(randomSnapshot());
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentsPageAtLatest() {
+        return readDocumentsPageAt(LATEST);
+    }
+
+    List<JsonDocument> readDocumentsPageAt(ZonedDateTime snapshot) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, snapshot, namespace, "Person", Range.first(PAGE_SIZE)).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long readPopulation() {
+        return readPopulationAt(randomSnapshot());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long readPopulationAtLatest() {
+        return readPopulationAt(LATEST);
+    }
+
+    long readPopulationAt(ZonedDateTime snapshot) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, snapshot, namespace, "Person", Range.unbounded()).count().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> findDocument() {
+        String lastname = lastname(ThreadLocalRandom.current().nextInt(LASTNAMES));
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, randomSnapshot(), namespace, "Person", LASTNAME, lastname, Range.unbounded()).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> readLinkedDocuments() {
+        String id = personId(ThreadLocalRandom.current().nextInt(persons));
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readLinkedDocuments(tx, randomSnapshot(), namespace, "Person", id, PREVIOUS_ADDRESSES_PATH,
+                    "Address", Range.unbounded()).toList().blockingGet();
+        }
+    }
+
+    static String personId(int i) {
+        return format("person%010d", i);
+    }
+
+    static String addressId(int i) {
+        return format("address%010d", i);
+    }
+
+    static String lastname(int i) {
+        return "Lastname " + Math.floorMod(i, LASTNAMES);
+    }
+}
@@ -0,0 +1,167 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createPerson;
+
+/**
+ * Measures reads as delete markers accumulate. The Person entity has {@value #LIVE} live documents, each followed in
+ * id order by the given number of deleted ones, so every page, neighbour and match of a live document lies behind
+ * that many tombstones. Deleted documents have a version and a delete marker, a tenth of them
+ * {@value #DELETE_CYCLES} cycles of both. The Address {@value #CHURNED_ID} has been deleted and re-created once per
+ * tombstone, for readDocumentVersions. Run with {@link ScalingReport} using the tombstones parameter: constant cost
+ * means the provider skips tombstones, linear cost means it scans them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class TombstoneBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime FIRST_VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final int LIVE = 1000;
+    static final int DELETE_CYCLES = 10;
+    static final int PAGE_SIZE = 100;
+    static final String CHURNED_ID = "churned";
+    static final JsonNavigationPath LASTNAME = JsonNavigationPath.from("$.lastname");
+
+    @Param({"1", "10", "100"})
+    public int tombstones;
+
+    ZonedDateTime snapshot;
+
+    @Override
+    protected void populate() {
+        snapshot = FIRST_VERSION.plusDays(2L * Math.max(DELETE_CYCLES, tombstones) + 1);
+        Ingest.ingest(persistence, specification, Flowable.range(0, documents()).concatMapIterable(this::personVersions));
+        Flowable.range(0, documents())
+                .filter(k -> !isLive(k))
+                .buffer(Ingest.DEFAULT_BATCH_SIZE)
+                .blockingForEach(batch -> {
+                    try (Transaction tx = persistence.createTransaction(false)) {
+                        for (int k : batch) {
+                            for (int cycle = 0; cycle < cycles(k); cycle++) {
+                                persistence.markDocumentDeleted(tx, namespace, "Person", personId(k),
+                                        FIRST_VERSION.plusDays(2 * cycle + 1), PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+                            }
+                        }
+                    }
+                });
+
+        try (Transaction tx = persistence.createTransaction(false)) {
+            for (int cycle = 0; cycle <= tombstones; cycle++) {
+                persistence.createOrOverwrite(tx, new JsonDocument(new DocumentKey(namespace, "Address", CHURNED_ID, FIRST_VERSION.plusDays(2 * cycle)),
+                        createAddress("City " + cycle, "State", "Country")), specification).blockingAwait();
+                if (cycle < tombstones) {
+                    persistence.markDocumentDeleted(tx, namespace, "Address", CHURNED_ID, FIRST_VERSION.plusDays(2 * cycle + 1),
+                            PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+                }
+            }
+        }
+    }
+
+    int documents() {
+        return LIVE * (tombstones + 1);
+    }
+
+    boolean isLive(int k) {
+        return k % (tombstones + 1) == 0;
+    }
+
+    int cycles(int k) {
+        return isLive(k) ? 0 : (k / (tombstones + 1)) % 10 == 0 ? DELETE_CYCLES : 1;
+    }
+
+    List<JsonDocument> personVersions(int k) {
+        List<JsonDocument> personVersions = new ArrayList<>();
+        for (int cycle = 0; cycle < Math.max(1, cycles(k)); cycle++) {
+            personVersions.add(new JsonDocument(new DocumentKey(namespace, "Person", personId(k), FIRST_VERSION.plusDays(2 * cycle)),
+                    createPerson("Person " + k, "Smith")));
+        }
+        return personVersions;
+    }
+
+    /**
+     * @return the id of a random live document that has live neighbours on both sides.
+     */
+    String randomLiveId() {
+        return personId((1 + ThreadLocalRandom.current().nextInt(LIVE - 2)) * (tombstones + 1));
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentsFirstPage() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, snapshot, namespace, "Person", Range.first(PAGE_SIZE)).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentsPageAfter() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocuments(tx, snapshot, namespace, "Person", Range.firstAfter(PAGE_SIZE, randomLiveId())).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> findDocumentFirstPage() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, snapshot, namespace, "Person", LASTNAME, "Smith", Range.first(PAGE_SIZE)).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public boolean hasNext() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.hasNext(tx, snapshot, namespace, "Person", randomLiveId()).blockingGet();
+        }
+    }
+
+    @Benchmark
+    public boolean hasPrevious() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.hasPrevious(tx, snapshot, namespace, "Person", randomLiveId()).blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentVersionsFirst() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocumentVersions(tx, namespace, "Address", CHURNED_ID, Range.first(DELETE_CYCLES)).toList().blockingGet();
+        }
+    }
+
+    @Benchmark
+    public List<JsonDocument> readDocumentVersionsLast() {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocumentVersions(tx, namespace, "Address", CHURNED_ID, Range.last(DELETE_CYCLES)).toList().blockingGet();
+        }
+    }
+
+    static String personId(int k) {
+        return format("person%010d", k);
+    }
+}
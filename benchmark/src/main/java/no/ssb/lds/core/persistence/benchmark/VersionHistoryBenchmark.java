@@ -0,0 +1,79 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.core.persistence.test.PersonAddressFixtures.createAddress;
+
+/**
+ * Measures point-in-time reads of a single document as its version history grows. Versions are one day apart, so a
+ * history of 100k versions spans close to three centuries. Run with {@link ScalingReport} using the historyDepth
+ * parameter to see whether read latency grows logarithmically or linearly with the depth of the history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class VersionHistoryBenchmark extends PersistenceBenchmark {
+
+    static final ZonedDateTime FIRST_VERSION = parse("1800-01-01T00:00:00.000Z");
+    static final String ID = "history";
+    static final int VERSIONS_PER_TRANSACTION = 1000;
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int historyDepth;
+
+    ZonedDateTime lastVersion;
+
+    @Override
+    protected void populate() {
+        lastVersion = FIRST_VERSION.plusDays(historyDepth - 1);
+        Flowable.range(0, historyDepth)
+                .map(day -> new JsonDocument(new DocumentKey(namespace, "Address", ID, FIRST_VERSION.plusDays(day)),
+                        createAddress("City " + day, "State", "Country")))
+                .buffer(VERSIONS_PER_TRANSACTION)
+                .blockingForEach(versions -> {
+                    try (Transaction tx = persistence.createTransaction(false)) {
+                        persistence.createOrOverwrite(tx, Flowable.fromIterable(versions), specification).blockingAwait();
+                    }
+                });
+    }
+
+    @Benchmark
+    public JsonDocument readDocumentAtRandomTimestamp() {
+        long day = ThreadLocalRandom.current().nextLong(historyDepth);
+        return readDocumentAt(FIRST_VERSION.plusDays(day).plusHours(12));
+    }
+
+    @Benchmark
+    public JsonDocument readDocumentAtOldestVersion() {
+        return readDocumentAt(FIRST_VERSION.plusHours(12));
+    }
+
+    @Benchmark
+    public JsonDocument readDocumentAtLatestVersion() {
+        return readDocumentAt(lastVersion.plusHours(12));
+    }
+
+    JsonDocument readDocumentAt(ZonedDateTime timestamp) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readDocument(tx, timestamp, namespace, "Address", ID).blockingGet();
+        }
+    }
+}
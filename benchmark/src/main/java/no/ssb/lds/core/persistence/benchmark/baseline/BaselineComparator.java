@@ -0,0 +1,101 @@
+package no.ssb.lds.core.persistence.benchmark.baseline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compares the results of a run to a stored baseline. A scenario regresses when its throughput drops, or, for
+ * scenarios with latency percentiles, its 99th percentile latency rises by more than the tolerated fraction of the
+ * baseline. Scenarios missing from either run and differences in the environment are logged, but are not
+ * regressions.
+ */
+public class BaselineComparator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BaselineComparator.class);
+
+    private final double maxThroughputDrop;
+    private final double maxP99Rise;
+
+    /**
+     * @param maxThroughputDrop the tolerated throughput drop as a fraction of the baseline, e.g. 0.1 for 10%.
+     * @param maxP99Rise        the tolerated p99 latency rise as a fraction of the baseline.
+     */
+    public BaselineComparator(double maxThroughputDrop, double maxP99Rise) {
+        this.maxThroughputDrop = maxThroughputDrop;
+        this.maxP99Rise = maxP99Rise;
+    }
+
+    /**
+     * @return a description of every regressed scenario, empty if none regressed.
+     */
+    public List<String> compare(BenchmarkResults baseline, BenchmarkResults current) {
+        for (Map.Entry<String, String> entry : baseline.environment().entrySet()) {
+            String value = current.environment().get(entry.getKey());
+            if (!Objects.equals(entry.getValue(), value)) {
+                LOG.warn("Environment differs from baseline, {} was {} and is {}", entry.getKey(), entry.getValue(), value);
+            }
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (ScenarioResult expected : baseline.scenarios().values()) {
+            ScenarioResult actual = current.scenarios().get(expected.name());
+            if (actual == null) {
+                LOG.warn("Scenario {} of the baseline was not run", expected.name());
+                continue;
+            }
+            double throughputChange = actual.throughput() / expected.throughput() - 1;
+            if (throughputChange < -maxThroughputDrop) {
+                regressions.add(String.format("%s throughput dropped %.1f%%, from %.1f to %.1f ops/s",
+                        expected.name(), -throughputChange * 100, expected.throughput(), actual.throughput()));
+            }
+            if (expected.p99Micros() != null && actual.p99Micros() != null) {
+                double p99Change = actual.p99Micros() / expected.p99Micros() - 1;
+                if (p99Change > maxP99Rise) {
+                    regressions.add(String.format("%s p99 latency rose %.1f%%, from %.1f to %.1f us",
+                            expected.name(), p99Change * 100, expected.p99Micros(), actual.p99Micros()));
+                }
+            }
+        }
+        for (String name : current.scenarios().keySet()) {
+            if (!baseline.scenarios().containsKey(name)) {
+                LOG.info("Scenario {} is not in the baseline", name);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Compares the results file given as the second argument to the baseline file given as the first, and exits
+     * with status 1 if any scenario regressed, which fails a Maven build running it with exec-maven-plugin. Passes
+     * when there is no baseline yet. The thresholds are set with the system properties
+     * lds.baseline.maxThroughputDrop (defaults to 0.1) and lds.baseline.maxP99Rise (defaults to 0.2).
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <results.json>");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        if (!Files.exists(baselinePath)) {
+            LOG.warn("No baseline at {}, store {} there to compare later runs to it", baselinePath, args[1]);
+            return;
+        }
+        BaselineComparator comparator = new BaselineComparator(
+                Double.parseDouble(System.getProperty("lds.baseline.maxThroughputDrop", "0.1")),
+                Double.parseDouble(System.getProperty("lds.baseline.maxP99Rise", "0.2")));
+        List<String> regressions = comparator.compare(BenchmarkResults.read(baselinePath), BenchmarkResults.read(Path.of(args[1])));
+        if (!regressions.isEmpty()) {
+            System.err.println("Performance regressed compared to " + baselinePath + ":");
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+        LOG.info("No regression compared to {}", baselinePath);
+    }
+}
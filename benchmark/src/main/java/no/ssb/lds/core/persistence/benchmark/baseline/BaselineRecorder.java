@@ -0,0 +1,33 @@
+package no.ssb.lds.core.persistence.benchmark.baseline;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks matching the given patterns and writes their {@link BenchmarkResults}, for
+ * {@link BaselineComparator} to compare to a baseline.
+ */
+public final class BaselineRecorder {
+
+    private BaselineRecorder() {
+    }
+
+    /**
+     * Arguments are the results file to write, the provider name and one or more JMH include patterns.
+     */
+    public static void main(String[] args) throws RunnerException {
+        if (args.length < 3) {
+            System.err.println("Usage: BaselineRecorder <results.json> <provider> <include pattern>...");
+            System.exit(2);
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        for (int i = 2; i < args.length; i++) {
+            options.include(args[i]);
+        }
+        BenchmarkResults.of(args[1], new Runner(options.build()).run()).write(Path.of(args[0]));
+    }
+}
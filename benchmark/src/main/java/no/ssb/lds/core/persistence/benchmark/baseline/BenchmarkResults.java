@@ -0,0 +1,214 @@
+package no.ssb.lds.core.persistence.benchmark.baseline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.ssb.lds.core.persistence.benchmark.load.LoadReport;
+import no.ssb.lds.core.persistence.benchmark.load.OperationStatistics;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.util.Statistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+
+/**
+ * The results of a benchmark or load run of one provider, with the environment it ran in, stored as JSON so later
+ * runs can be compared to it with {@link BaselineComparator}.
+ * <p>
+ * JMH results become one scenario per benchmark method, parameter combination and mode, named like
+ * "package.Benchmark.method[param=value]/avgt". For time based modes the throughput is derived from the mean
+ * latency of one thread. Only SampleTime measures the latency of single operations, so only SampleTime scenarios get
+ * latency percentiles. The statistics of the other modes hold one average per iteration, too few and too smoothed
+ * for a meaningful p99.
+ */
+public class BenchmarkResults {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String provider;
+    private final ZonedDateTime timestamp;
+    private final Map<String, String> environment;
+    private final Map<String, ScenarioResult> scenarios;
+
+    public BenchmarkResults(String provider, ZonedDateTime timestamp, Map<String, String> environment, Collection<ScenarioResult> scenarios) {
+        this.provider = provider;
+        this.timestamp = timestamp;
+        this.environment = Collections.unmodifiableMap(new LinkedHashMap<>(environment));
+        Map<String, ScenarioResult> scenarioByName = new LinkedHashMap<>();
+        for (ScenarioResult scenario : scenarios) {
+            scenarioByName.put(scenario.name(), scenario);
+        }
+        this.scenarios = Collections.unmodifiableMap(scenarioByName);
+    }
+
+    public static BenchmarkResults of(String provider, Collection<RunResult> results) {
+        List<ScenarioResult> scenarios = new ArrayList<>();
+        for (RunResult result : results) {
+            scenarios.add(scenario(result));
+        }
+        return new BenchmarkResults(provider, ZonedDateTime.now(), currentEnvironment(), scenarios);
+    }
+
+    public static BenchmarkResults of(String provider, LoadReport report) {
+        List<ScenarioResult> scenarios = new ArrayList<>();
+        for (OperationStatistics statistics : report.statisticsByOperation().values()) {
+            Map<String, Double> latencyMicros = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                latencyMicros.put(percentileName(percentile), statistics.percentileMicros(percentile));
+            }
+            scenarios.add(new ScenarioResult("load." + statistics.operation(), statistics.throughput(), latencyMicros));
+        }
+        Map<String, String> environment = currentEnvironment();
+        environment.put("load.workers", String.valueOf(report.workers()));
+        return new BenchmarkResults(provider, ZonedDateTime.now(), environment, scenarios);
+    }
+
+    /**
+     * Describes the JVM and machine of the current run. The system property lds.benchmark.revision, e.g. the commit
+     * of the provider, is recorded when set.
+     */
+    public static Map<String, String> currentEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        for (String property : List.of("java.version", "java.vm.name", "os.name", "os.version", "os.arch", "lds.benchmark.revision")) {
+            if (System.getProperty(property) != null) {
+                environment.put(property, System.getProperty(property));
+            }
+        }
+        environment.put("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        environment.put("maxHeapBytes", String.valueOf(Runtime.getRuntime().maxMemory()));
+        return environment;
+    }
+
+    static ScenarioResult scenario(RunResult result) {
+        BenchmarkParams params = result.getParams();
+        StringBuilder name = new StringBuilder(params.getBenchmark());
+        if (!params.getParamsKeys().isEmpty()) {
+            StringBuilder values = new StringBuilder();
+            for (String key : new TreeSet<>(params.getParamsKeys())) {
+                values.append(values.length() == 0 ? "" : ",").append(key).append('=').append(params.getParam(key));
+            }
+            name.append('[').append(values).append(']');
+        }
+        name.append('/').append(params.getMode().shortLabel());
+
+        Result primary = result.getPrimaryResult();
+        String unit = primary.getScoreUnit();
+        Map<String, Double> latencyMicros = new LinkedHashMap<>();
+        double throughput;
+        if (unit.startsWith("ops/")) {
+            throughput = primary.getScore() / seconds(unit.substring("ops/".length()));
+        } else {
+            double micros = seconds(unit.substring(0, unit.indexOf('/'))) * 1e6;
+            if (params.getMode() == Mode.SampleTime) {
+                Statistics statistics = primary.getStatistics();
+                for (double percentile : PERCENTILES) {
+                    latencyMicros.put(percentileName(percentile), statistics.getPercentile(percentile) * micros);
+                }
+            }
+            throughput = 1e6 / (primary.getScore() * micros);
+        }
+        return new ScenarioResult(name.toString(), throughput, latencyMicros);
+    }
+
+    static double seconds(String unit) {
+        switch (unit) {
+            case "ns":
+                return 1.0 / TimeUnit.SECONDS.toNanos(1);
+            case "us":
+                return 1.0 / TimeUnit.SECONDS.toMicros(1);
+            case "ms":
+                return 1.0 / TimeUnit.SECONDS.toMillis(1);
+            case "s":
+                return 1;
+            case "min":
+                return TimeUnit.MINUTES.toSeconds(1);
+            default:
+                throw new IllegalArgumentException("Unsupported time unit: " + unit);
+        }
+    }
+
+    static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+    }
+
+    public String provider() {
+        return provider;
+    }
+
+    public ZonedDateTime timestamp() {
+        return timestamp;
+    }
+
+    public Map<String, String> environment() {
+        return environment;
+    }
+
+    public Map<String, ScenarioResult> scenarios() {
+        return scenarios;
+    }
+
+    public ObjectNode toJson() {
+        ObjectNode json = mapper.createObjectNode();
+        json.put("provider", provider);
+        json.put("timestamp", timestamp.toString());
+        ObjectNode environmentJson = json.putObject("environment");
+        environment.forEach(environmentJson::put);
+        ArrayNode scenariosJson = json.putArray("scenarios");
+        for (ScenarioResult scenario : scenarios.values()) {
+            ObjectNode scenarioJson = scenariosJson.addObject();
+            scenarioJson.put("name", scenario.name());
+            scenarioJson.put("throughput", scenario.throughput());
+            ObjectNode latencyJson = scenarioJson.putObject("latencyMicros");
+            scenario.latencyMicros().forEach(latencyJson::put);
+        }
+        return json;
+    }
+
+    public static BenchmarkResults fromJson(JsonNode json) {
+        Map<String, String> environment = new LinkedHashMap<>();
+        json.get("environment").fields().forEachRemaining(field -> environment.put(field.getKey(), field.getValue().asText()));
+        List<ScenarioResult> scenarios = new ArrayList<>();
+        for (JsonNode scenarioJson : json.get("scenarios")) {
+            Map<String, Double> latencyMicros = new LinkedHashMap<>();
+            scenarioJson.get("latencyMicros").fields().forEachRemaining(field -> latencyMicros.put(field.getKey(), field.getValue().doubleValue()));
+            scenarios.add(new ScenarioResult(scenarioJson.get("name").textValue(), scenarioJson.get("throughput").doubleValue(), latencyMicros));
+        }
+        return new BenchmarkResults(json.get("provider").textValue(), ZonedDateTime.parse(json.get("timestamp").textValue()),
+                environment, scenarios);
+    }
+
+    public void write(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            mapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static BenchmarkResults read(Path path) {
+        try {
+            return fromJson(mapper.readTree(path.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
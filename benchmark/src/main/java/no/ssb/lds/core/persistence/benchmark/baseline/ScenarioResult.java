@@ -0,0 +1,47 @@
+package no.ssb.lds.core.persistence.benchmark.baseline;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of one scenario of a run, a benchmark method with one set of parameters or one operation of a load
+ * run. Throughput is in operations per second, latency percentiles are in microseconds keyed by percentile, e.g.
+ * "p99". Scenarios without latency samples, e.g. JMH modes other than SampleTime, have no latency percentiles.
+ */
+public class ScenarioResult {
+
+    private final String name;
+    private final double throughput;
+    private final Map<String, Double> latencyMicros;
+
+    public ScenarioResult(String name, double throughput, Map<String, Double> latencyMicros) {
+        this.name = name;
+        this.throughput = throughput;
+        this.latencyMicros = Collections.unmodifiableMap(new LinkedHashMap<>(latencyMicros));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public double throughput() {
+        return throughput;
+    }
+
+    public Map<String, Double> latencyMicros() {
+        return latencyMicros;
+    }
+
+    /**
+     * @return the 99th percentile latency in microseconds, or null if the scenario has no latency percentiles.
+     */
+    public Double p99Micros() {
+        return latencyMicros.get("p99");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f ops/s, latency us %s", name, throughput, latencyMicros);
+    }
+}
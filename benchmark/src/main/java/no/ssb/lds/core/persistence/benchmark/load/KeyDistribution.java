@@ -0,0 +1,84 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks which of a fixed number of keys an operation works on, as an index from 0 to the number of keys.
+ */
+@FunctionalInterface
+public interface KeyDistribution {
+
+    long next(SplittableRandom random);
+
+    /**
+     * Every key equally likely.
+     */
+    static KeyDistribution uniform(long keys) {
+        return random -> random.nextLong(keys);
+    }
+
+    /**
+     * Key popularity following Zipf's law with the given exponent, 0.99 in YCSB, with the popular keys scattered
+     * over the key range rather than clustered at its start.
+     */
+    static KeyDistribution zipfian(long keys, double constant) {
+        Zipfian zipfian = new Zipfian(keys, constant);
+        return random -> Math.floorMod(zipfian.rank(random) * 0x9E3779B97F4A7C15L, keys);
+    }
+
+    /**
+     * Key popularity following Zipf's law with the given exponent, the most popular keys being the highest, e.g. the
+     * most recently created.
+     */
+    static KeyDistribution latest(long keys, double constant) {
+        Zipfian zipfian = new Zipfian(keys, constant);
+        return random -> keys - 1 - zipfian.rank(random);
+    }
+
+    /**
+     * Draws ranks from 0, the most popular, to the number of keys, by the method of Gray et al., "Quickly
+     * generating billion-record synthetic databases", as used by YCSB. Creating one sums over all keys once.
+     */
+    final class Zipfian {
+
+        final long keys;
+        final double theta;
+        final double alpha;
+        final double zetaN;
+        final double eta;
+
+        Zipfian(long keys, double theta) {
+            if (keys < 1) {
+                throw new IllegalArgumentException("keys must be positive: " + keys);
+            }
+            if (theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("Zipfian constant must be between 0 and 1: " + theta);
+            }
+            this.keys = keys;
+            this.theta = theta;
+            this.alpha = 1 / (1 - theta);
+            this.zetaN = zeta(keys, theta);
+            this.eta = (1 - Math.pow(2.0 / keys, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        }
+
+        long rank(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return Math.min(1, keys - 1);
+            }
+            return Math.min(keys - 1, (long) (keys * Math.pow(eta * u - eta + 1, alpha)));
+        }
+
+        static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a weighted mix of {@link LoadOperation}s from a number of concurrent workers against a persistence. Every
+ * operation is executed in its own transaction, opened by the worker with the read-only flag of the operation and
+ * closed when the operation returns. The measured latency spans the whole transaction.
+ * <p>
+ * Each worker records into its own histograms, which are merged when the run completes, so recording does not
+ * contend between workers. Operations completing during the warmup period are executed but not recorded. A failed
+ * operation is retried in a new transaction, with a random source in the same state, up to the configured number
+ * of retries. Operations failing every attempt are counted as errors, and their latency is recorded like any other,
+ * spanning all attempts.
+ * <p>
+ * Without a target rate every worker issues its next operation as soon as the previous one completes. With a target
+ * rate the workers share it evenly, each starting its operations on a fixed schedule and waiting when ahead of it.
+ * Latency is then measured from the scheduled start, so an operation delayed by a slow predecessor counts the delay,
+ * as a client arriving at that time would have seen it.
+ */
+public class LoadDriver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final RxJsonPersistence persistence;
+    private final List<WeightedOperation> operations = new ArrayList<>();
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private Duration warmup = Duration.ofSeconds(2);
+    private Duration duration = Duration.ofSeconds(10);
+    private long seed = 1;
+    private int retries = 0;
+    private double targetRate = 0;
+
+    public LoadDriver(RxJsonPersistence persistence) {
+        this.persistence = persistence;
+    }
+
+    /**
+     * Adds an operation to the mix. Each worker picks the next operation at random, in proportion to the weights.
+     */
+    public LoadDriver operation(String name, int weight, boolean readOnly, LoadOperation operation) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for operation " + name);
+        }
+        for (WeightedOperation existing : operations) {
+            if (existing.name.equals(name)) {
+                throw new IllegalArgumentException("Duplicate operation " + name);
+            }
+        }
+        operations.add(new WeightedOperation(name, weight, readOnly, operation));
+        return this;
+    }
+
+    public LoadDriver workers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public LoadDriver warmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public LoadDriver duration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random sources of the workers, each worker gets its own source derived from the seed.
+     */
+    public LoadDriver seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the number of times a failed operation is retried, defaults to none.
+     */
+    public LoadDriver retries(int retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    /**
+     * Sets the total number of operations per second to issue across all workers, defaults to 0, as many as the
+     * workers can complete.
+     */
+    public LoadDriver targetRate(double operationsPerSecond) {
+        if (operationsPerSecond < 0) {
+            throw new IllegalArgumentException("Negative target rate: " + operationsPerSecond);
+        }
+        this.targetRate = operationsPerSecond;
+        return this;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        if (totalWeight == 0) {
+            throw new IllegalStateException("No operations to run");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "load-worker-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            long recordFrom = start + warmup.toNanos();
+            long recordUntil = recordFrom + duration.toNanos();
+
+            long interval = targetRate > 0 ? (long) (workers * 1_000_000_000L / targetRate) : 0;
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                Worker worker = new Worker(new SplittableRandom(seed + i), totalWeight, start + interval * i / workers, interval, recordFrom, recordUntil);
+                futures.add(executor.submit(worker));
+            }
+
+            Map<String, Histogram> histograms = new LinkedHashMap<>();
+            Map<String, Long> errors = new LinkedHashMap<>();
+            Map<String, Long> retried = new LinkedHashMap<>();
+            for (WeightedOperation operation : operations) {
+                histograms.put(operation.name, new Histogram(3));
+                errors.put(operation.name, 0L);
+                retried.put(operation.name, 0L);
+            }
+            for (Future<Worker> future : futures) {
+                Worker worker;
+                try {
+                    worker = future.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+                for (int i = 0; i < operations.size(); i++) {
+                    String name = operations.get(i).name;
+                    histograms.get(name).add(worker.histograms[i]);
+                    errors.merge(name, worker.errors[i], Long::sum);
+                    retried.merge(name, worker.retries[i], Long::sum);
+                }
+            }
+
+            Map<String, OperationStatistics> statistics = new LinkedHashMap<>();
+            for (WeightedOperation operation : operations) {
+                statistics.put(operation.name, new OperationStatistics(operation.name, histograms.get(operation.name),
+                        errors.get(operation.name), retried.get(operation.name), duration.toNanos()));
+            }
+            return new LoadReport(workers, duration.toNanos(), statistics);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class Worker implements Callable<Worker> {
+
+        final SplittableRandom random;
+        final int totalWeight;
+        final long interval;
+        final long recordFrom;
+        final long recordUntil;
+        final Histogram[] histograms;
+        final long[] errors;
+        final long[] retries;
+        final boolean[] logged;
+
+        long scheduled;
+
+        Worker(SplittableRandom random, int totalWeight, long scheduled, long interval, long recordFrom, long recordUntil) {
+            this.random = random;
+            this.totalWeight = totalWeight;
+            this.scheduled = scheduled;
+            this.interval = interval;
+            this.recordFrom = recordFrom;
+            this.recordUntil = recordUntil;
+            this.histograms = new Histogram[operations.size()];
+            this.errors = new long[operations.size()];
+            this.retries = new long[operations.size()];
+            this.logged = new boolean[operations.size()];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram(3);
+            }
+        }
+
+        @Override
+        public Worker call() {
+            long now = System.nanoTime();
+            while (now < recordUntil && !Thread.currentThread().isInterrupted()) {
+                int i = pick();
+                WeightedOperation operation = operations.get(i);
+                long operationSeed = random.nextLong();
+                long begin;
+                if (interval > 0) {
+                    begin = scheduled;
+                    scheduled += interval;
+                    while (System.nanoTime() < begin && !Thread.currentThread().isInterrupted()) {
+                        LockSupport.parkNanos(begin - System.nanoTime());
+                    }
+                    if (begin >= recordUntil) {
+                        break;
+                    }
+                } else {
+                    begin = System.nanoTime();
+                }
+                boolean failed = true;
+                int retried = 0;
+                for (int attempt = 0; failed && attempt <= LoadDriver.this.retries; attempt++) {
+                    retried = attempt;
+                    failed = false;
+                    try (Transaction transaction = persistence.createTransaction(operation.readOnly)) {
+                        operation.operation.execute(persistence, transaction, new SplittableRandom(operationSeed));
+                    } catch (Exception e) {
+                        failed = true;
+                        if (!logged[i]) {
+                            logged[i] = true;
+                            LOG.warn("Operation {} failed", operation.name, e);
+                        }
+                    }
+                }
+                now = System.nanoTime();
+                if (begin >= recordFrom && now <= recordUntil) {
+                    histograms[i].recordValue(now - begin);
+                    retries[i] += retried;
+                    if (failed) {
+                        errors[i]++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private int pick() {
+            int value = random.nextInt(totalWeight);
+            for (int i = 0; i < operations.size(); i++) {
+                value -= operations.get(i).weight;
+                if (value < 0) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private static class WeightedOperation {
+
+        final String name;
+        final int weight;
+        final boolean readOnly;
+        final LoadOperation operation;
+
+        WeightedOperation(String name, int weight, boolean readOnly, LoadOperation operation) {
+            this.name = name;
+            this.weight = weight;
+            this.readOnly = readOnly;
+            this.operation = operation;
+        }
+    }
+}
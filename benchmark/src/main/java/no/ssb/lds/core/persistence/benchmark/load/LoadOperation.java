@@ -0,0 +1,19 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+
+import java.util.SplittableRandom;
+
+/**
+ * A single operation issued by a load driver worker. The operation must block until the persistence has completed
+ * it, e.g. by using blockingAwait or by draining the returned flowable.
+ */
+@FunctionalInterface
+public interface LoadOperation {
+
+    /**
+     * @param random the random source of the calling worker, for picking keys and values.
+     */
+    void execute(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) throws Exception;
+}
@@ -0,0 +1,64 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The statistics of every operation of a load run.
+ */
+public class LoadReport {
+
+    private final int workers;
+    private final long durationNanos;
+    private final Map<String, OperationStatistics> statisticsByOperation;
+
+    LoadReport(int workers, long durationNanos, Map<String, OperationStatistics> statisticsByOperation) {
+        this.workers = workers;
+        this.durationNanos = durationNanos;
+        this.statisticsByOperation = Collections.unmodifiableMap(statisticsByOperation);
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public Map<String, OperationStatistics> statisticsByOperation() {
+        return statisticsByOperation;
+    }
+
+    public OperationStatistics statistics(String operation) {
+        return statisticsByOperation.get(operation);
+    }
+
+    public long count() {
+        return statisticsByOperation.values().stream().mapToLong(OperationStatistics::count).sum();
+    }
+
+    public long errors() {
+        return statisticsByOperation.values().stream().mapToLong(OperationStatistics::errors).sum();
+    }
+
+    public long retries() {
+        return statisticsByOperation.values().stream().mapToLong(OperationStatistics::retries).sum();
+    }
+
+    public double throughput() {
+        return statisticsByOperation.values().stream().mapToDouble(OperationStatistics::throughput).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d workers, %.1f s, %.1f ops/s, %d errors%n", workers, durationNanos / 1e9, throughput(), errors()));
+        sb.append(String.format("%-28s %10s %8s %8s %12s %12s %12s %12s %12s%n",
+                "operation", "count", "errors", "retries", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (OperationStatistics statistics : statisticsByOperation.values()) {
+            sb.append(statistics).append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+}
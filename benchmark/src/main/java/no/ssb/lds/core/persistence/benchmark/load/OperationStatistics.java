@@ -0,0 +1,79 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and throughput of one operation over a load run. Latencies are recorded in nanoseconds and reported in
+ * microseconds.
+ */
+public class OperationStatistics {
+
+    private final String operation;
+    private final Histogram histogram;
+    private final long errors;
+    private final long retries;
+    private final long durationNanos;
+
+    OperationStatistics(String operation, Histogram histogram, long errors, long retries, long durationNanos) {
+        this.operation = operation;
+        this.histogram = histogram;
+        this.errors = errors;
+        this.retries = retries;
+        this.durationNanos = durationNanos;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public Histogram histogram() {
+        return histogram;
+    }
+
+    public long count() {
+        return histogram.getTotalCount();
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of attempts that failed and were retried, see {@link LoadDriver#retries(int)}.
+     */
+    public long retries() {
+        return retries;
+    }
+
+    public double throughput() {
+        return count() / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public double percentileMicros(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double p50Micros() {
+        return percentileMicros(50);
+    }
+
+    public double p99Micros() {
+        return percentileMicros(99);
+    }
+
+    public double p999Micros() {
+        return percentileMicros(99.9);
+    }
+
+    public double maxMicros() {
+        return histogram.getMaxValue() / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %10d %8d %8d %12.1f %12.1f %12.1f %12.1f %12.1f",
+                operation, count(), errors, retries, throughput(), p50Micros(), p99Micros(), p999Micros(), maxMicros());
+    }
+}
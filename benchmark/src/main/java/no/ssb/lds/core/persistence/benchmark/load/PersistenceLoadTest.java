@@ -0,0 +1,73 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.Ingest;
+import no.ssb.lds.core.persistence.benchmark.baseline.BenchmarkResults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link StandardOperations} from concurrent workers and logs the latency percentiles and throughput of every
+ * operation. Providers extend this class and set the persistence, like with the integration test, in their constructor
+ * or in a BeforeClass method: the data-set is written before the first test rather than in a BeforeClass method of this
+ * class, as TestNG runs those before the ones of the subclass. The load is configured with the system properties
+ * lds.load.workers (defaults to the number of processors), lds.load.seconds, lds.load.documents and lds.load.versions.
+ * With lds.load.results set to a file the report is also written there as {@link BenchmarkResults}.
+ */
+public abstract class PersistenceLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistenceLoadTest.class);
+
+    protected final String namespace;
+    protected RxJsonPersistence persistence;
+    protected StandardOperations operations;
+
+    protected PersistenceLoadTest(String namespace) {
+        this.namespace = namespace;
+    }
+
+    @BeforeMethod
+    public synchronized void populate() {
+        if (operations != null) {
+            return;
+        }
+        StandardOperations operations = new StandardOperations(namespace, Long.getLong("lds.load.documents", 10_000),
+                Integer.getInteger("lds.load.versions", 3));
+        operations.populate(persistence);
+        this.operations = operations;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (operations != null) {
+            Ingest.deleteAll(persistence, operations.specification(), namespace);
+            operations = null;
+        }
+    }
+
+    @Test
+    public void thatStandardOperationsRunUnderLoad() throws InterruptedException {
+        LoadDriver driver = new LoadDriver(persistence)
+                .workers(Integer.getInteger("lds.load.workers", Runtime.getRuntime().availableProcessors()))
+                .duration(Duration.ofSeconds(Long.getLong("lds.load.seconds", 10)));
+        LoadReport report = operations.register(driver).run();
+
+        LOG.info("Load report for {}:\n{}", persistence.getClass().getSimpleName(), report);
+        if (System.getProperty("lds.load.results") != null) {
+            BenchmarkResults.of(persistence.getClass().getSimpleName(), report).write(Path.of(System.getProperty("lds.load.results")));
+        }
+
+        for (OperationStatistics statistics : report.statisticsByOperation().values()) {
+            assertThat(statistics.count()).as("%s count", statistics.operation()).isPositive();
+            assertThat(statistics.errors()).as("%s errors", statistics.operation()).isZero();
+        }
+    }
+}
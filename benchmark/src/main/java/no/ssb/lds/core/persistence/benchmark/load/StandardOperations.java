@@ -0,0 +1,251 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.benchmark.Ingest;
+import no.ssb.lds.core.persistence.test.DocumentGenerator;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The operations of every {@link RxJsonPersistence} method exercised by the persistence integration test, issued
+ * against a generated Person/Address data-set.
+ * <p>
+ * The operations keep the data-set stable while running: writes re-create generated versions, either over the
+ * populated Person documents or into a scratch range of ids above them, deletes of whole documents only target the
+ * scratch range and delete markers are placed after the latest version ever read. deleteAllEntities is left out as
+ * it would empty the data-set.
+ */
+public class StandardOperations {
+
+    static final JsonNavigationPath FIRSTNAME = JsonNavigationPath.from("$.firstname");
+    static final JsonNavigationPath PREVIOUS_ADDRESSES = JsonNavigationPath.from("$.history.previousAddresses[]");
+    static final Set<String> READ_ONLY = Set.of("readDocument", "readDocuments", "readDocumentVersions",
+            "readLinkedDocuments", "readSourceDocuments", "findDocument", "hasNext", "hasPrevious");
+
+    private final Specification specification;
+    private final String namespace;
+    private final DocumentGenerator generator;
+    private final long persons;
+    private final long addresses;
+    private final ZonedDateTime latest;
+    private final ZonedDateTime tombstone;
+    private int pageSize = 10;
+    private int batchSize = 10;
+    private KeyDistribution keys;
+
+    public StandardOperations(String namespace, long persons, int versions) {
+        this.specification = PersonAddressFixtures.specification();
+        this.namespace = namespace;
+        this.persons = persons;
+        this.addresses = Math.max(1, persons / 10);
+        this.generator = new DocumentGenerator(specification, namespace)
+                .documents("Person", persons)
+                .documents("Address", addresses)
+                .documents("FunkyLongAddress", addresses)
+                .versions(versions)
+                .refFanOut(3);
+        this.latest = generator.version(versions);
+        this.tombstone = generator.version(versions + 1);
+        this.keys = KeyDistribution.uniform(persons);
+    }
+
+    /**
+     * Sets the number of documents read by range operations.
+     */
+    public StandardOperations pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of documents written by the batched createOrOverwrite operation.
+     */
+    public StandardOperations batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the distribution of the Person documents operated on, defaults to {@link KeyDistribution#uniform(long)}.
+     * Writes into the scratch range of ids and links to addresses stay uniform.
+     */
+    public StandardOperations keyDistribution(KeyDistribution keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    /**
+     * Sets the length of generated string values, see {@link DocumentGenerator#valueSize(int)}.
+     */
+    public StandardOperations valueSize(int valueSize) {
+        generator.valueSize(valueSize);
+        return this;
+    }
+
+    public long persons() {
+        return persons;
+    }
+
+    public Specification specification() {
+        return specification;
+    }
+
+    public DocumentGenerator generator() {
+        return generator;
+    }
+
+    /**
+     * Writes the data-set, a thousand documents per transaction.
+     */
+    public void populate(RxJsonPersistence persistence) {
+        Ingest.ingest(persistence, specification, generator.generateAll());
+    }
+
+    /**
+     * Adds every operation to the driver with the same weight.
+     */
+    public LoadDriver register(LoadDriver driver) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String name : operationNames()) {
+            weights.put(name, 1);
+        }
+        return register(driver, weights);
+    }
+
+    /**
+     * Adds the named operations to the driver with the given weights.
+     *
+     * @throws IllegalArgumentException if a name is not one of {@link #operationNames()}.
+     */
+    public LoadDriver register(LoadDriver driver, Map<String, Integer> weights) {
+        Map<String, LoadOperation> operations = operations();
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            LoadOperation operation = operations.get(weight.getKey());
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation " + weight.getKey() + ", expected one of " + operations.keySet());
+            }
+            driver.operation(weight.getKey(), weight.getValue(), READ_ONLY.contains(weight.getKey()), operation);
+        }
+        return driver;
+    }
+
+    public Set<String> operationNames() {
+        return operations().keySet();
+    }
+
+    private Map<String, LoadOperation> operations() {
+        Map<String, LoadOperation> operations = new LinkedHashMap<>();
+        operations.put("createOrOverwrite", this::createOrOverwrite);
+        operations.put("createOrOverwriteFlowable", this::createOrOverwriteFlowable);
+        operations.put("readDocument", this::readDocument);
+        operations.put("readDocuments", this::readDocuments);
+        operations.put("readDocumentVersions", this::readDocumentVersions);
+        operations.put("readLinkedDocuments", this::readLinkedDocuments);
+        operations.put("readSourceDocuments", this::readSourceDocuments);
+        operations.put("findDocument", this::findDocument);
+        operations.put("hasNext", this::hasNext);
+        operations.put("hasPrevious", this::hasPrevious);
+        operations.put("markDocumentDeleted", this::markDocumentDeleted);
+        operations.put("deleteDocument", this::deleteDocument);
+        operations.put("deleteAllDocumentVersions", this::deleteAllDocumentVersions);
+        return operations;
+    }
+
+    public void createOrOverwrite(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        JsonDocument document = generator.generate("Person", random.nextLong(persons * 2), random.nextInt(generator.versions()));
+        persistence.createOrOverwrite(transaction, document, specification).blockingAwait();
+    }
+
+    public void createOrOverwriteFlowable(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        long first = random.nextLong(persons * 2);
+        int version = random.nextInt(generator.versions());
+        Flowable<JsonDocument> documents = Flowable.rangeLong(first, batchSize)
+                .map(index -> generator.generate("Person", index, version));
+        persistence.createOrOverwrite(transaction, documents, specification).blockingAwait();
+    }
+
+    public void readDocument(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.readDocument(transaction, snapshot(random), namespace, "Person", personId(random)).blockingGet();
+    }
+
+    public void readDocuments(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.readDocuments(transaction, snapshot(random), namespace, "Person",
+                Range.firstAfter(pageSize, personId(random))).blockingSubscribe();
+    }
+
+    public void readDocumentVersions(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.readDocumentVersions(transaction, namespace, "Person", personId(random), Range.unbounded())
+                .blockingSubscribe();
+    }
+
+    public void readLinkedDocuments(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.readLinkedDocuments(transaction, snapshot(random), namespace, "Person", personId(random),
+                PREVIOUS_ADDRESSES, addressEntity(random), Range.first(pageSize)).blockingSubscribe();
+    }
+
+    public void readSourceDocuments(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        String entity = addressEntity(random);
+        persistence.readSourceDocuments(transaction, snapshot(random), namespace, entity,
+                generator.id(entity, random.nextLong(addresses)), PREVIOUS_ADDRESSES, "Person",
+                Range.first(pageSize)).blockingSubscribe();
+    }
+
+    public void findDocument(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        JsonDocument document = generator.generate("Person", keys.next(random), generator.versions() - 1);
+        persistence.findDocument(transaction, latest, namespace, "Person", FIRSTNAME,
+                document.jackson().get("firstname").textValue(), Range.first(pageSize)).blockingSubscribe();
+    }
+
+    public void hasNext(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.hasNext(transaction, snapshot(random), namespace, "Person", personId(random)).blockingGet();
+    }
+
+    public void hasPrevious(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.hasPrevious(transaction, snapshot(random), namespace, "Person", personId(random)).blockingGet();
+    }
+
+    public void markDocumentDeleted(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.markDocumentDeleted(transaction, namespace, "Person", personId(random), tombstone,
+                PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+    }
+
+    public void deleteDocument(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        persistence.deleteDocument(transaction, namespace, "Person", personId(random), tombstone,
+                PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+    }
+
+    public void deleteAllDocumentVersions(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        String scratchId = generator.id("Person", persons + random.nextLong(persons));
+        persistence.deleteAllDocumentVersions(transaction, namespace, "Person", scratchId,
+                PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+    }
+
+    private String personId(SplittableRandom random) {
+        return generator.id("Person", keys.next(random));
+    }
+
+    private String addressEntity(SplittableRandom random) {
+        return random.nextBoolean() ? "Address" : "FunkyLongAddress";
+    }
+
+    /**
+     * @return a random time between the first version and the latest time read.
+     */
+    private ZonedDateTime snapshot(SplittableRandom random) {
+        ZonedDateTime first = generator.version(0);
+        long seconds = latest.toEpochSecond() - first.toEpochSecond();
+        return first.plusSeconds(random.nextLong(seconds + 1));
+    }
+}
@@ -0,0 +1,288 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+
+/**
+ * A declarative load scenario for {@link WorkloadRunner}, read from JSON. Only "operations" is required, every
+ * other field has a default:
+ * <pre>
+ * {
+ *   "name": "read-mostly",
+ *   "persons": 10000,
+ *   "versions": 3,
+ *   "valueSize": 16,
+ *   "pageSize": 10,
+ *   "batchSize": 10,
+ *   "keyDistribution": "zipfian",
+ *   "zipfianConstant": 0.99,
+ *   "workers": 8,
+ *   "targetRate": 500,
+ *   "warmupSeconds": 2,
+ *   "durationSeconds": 60,
+ *   "retries": 0,
+ *   "seed": 1,
+ *   "operations": {"readDocument": 80, "readDocuments": 10, "createOrOverwrite": 10}
+ * }
+ * </pre>
+ * The operations are names of {@link StandardOperations} with their share of the mix in whole percent, adding up to
+ * 100. Unknown fields and values of the wrong type or out of range are rejected rather than replaced by defaults. The
+ * key distribution is one of uniform, zipfian and latest, see {@link KeyDistribution}. A target rate of 0, the default,
+ * runs unthrottled, workers default to the number of processors.
+ */
+public class Workload {
+
+    static final List<String> FIELDS = List.of("name", "persons", "versions", "valueSize", "pageSize", "batchSize",
+            "keyDistribution", "zipfianConstant", "workers", "targetRate", "warmupSeconds", "durationSeconds", "retries",
+            "seed", "operations");
+    static final List<String> POSITIVE_FIELDS = List.of("persons", "versions", "valueSize", "pageSize", "batchSize",
+            "workers", "durationSeconds");
+    static final List<String> NON_NEGATIVE_FIELDS = List.of("targetRate", "warmupSeconds", "retries");
+
+    private final String name;
+    private final long persons;
+    private final int versions;
+    private final int valueSize;
+    private final int pageSize;
+    private final int batchSize;
+    private final String keyDistribution;
+    private final double zipfianConstant;
+    private final int workers;
+    private final double targetRate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int retries;
+    private final long seed;
+    private final Map<String, Integer> operations;
+
+    Workload(String name, long persons, int versions, int valueSize, int pageSize, int batchSize, String keyDistribution,
+             double zipfianConstant, int workers, double targetRate, Duration warmup, Duration duration, int retries,
+             long seed, Map<String, Integer> operations) {
+        this.name = name;
+        this.persons = persons;
+        this.versions = versions;
+        this.valueSize = valueSize;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        this.keyDistribution = keyDistribution;
+        this.zipfianConstant = zipfianConstant;
+        this.workers = workers;
+        this.targetRate = targetRate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.retries = retries;
+        this.seed = seed;
+        this.operations = Collections.unmodifiableMap(new LinkedHashMap<>(operations));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operations are missing, are not whole percentages or do not add up to
+     *                                  100, a field is unknown, of the wrong type or out of range, or the key
+     *                                  distribution is unknown.
+     */
+    public static Workload fromJson(JsonNode json) {
+        if (json == null || !json.isObject()) {
+            throw new IllegalArgumentException("Workload must be a JSON object, got: " + json);
+        }
+        for (Iterator<String> it = json.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            if (!FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown workload field " + field + ", expected one of " + FIELDS);
+            }
+        }
+        for (String field : POSITIVE_FIELDS) {
+            JsonNode value = json.get(field);
+            if (value != null && value.isNumber() && value.doubleValue() <= 0) {
+                throw new IllegalArgumentException(field + " must be positive, got: " + value);
+            }
+        }
+        for (String field : NON_NEGATIVE_FIELDS) {
+            JsonNode value = json.get(field);
+            if (value != null && value.isNumber() && value.doubleValue() < 0) {
+                throw new IllegalArgumentException(field + " must not be negative, got: " + value);
+            }
+        }
+        JsonNode zipfianConstant = json.get("zipfianConstant");
+        if (zipfianConstant != null && zipfianConstant.isNumber()
+                && (zipfianConstant.doubleValue() <= 0 || zipfianConstant.doubleValue() >= 1)) {
+            throw new IllegalArgumentException("zipfianConstant must be between 0 and 1, got: " + zipfianConstant);
+        }
+        JsonNode operationsJson = json.get("operations");
+        if (operationsJson == null || !operationsJson.isObject() || operationsJson.size() == 0) {
+            throw new IllegalArgumentException("Workload without operations");
+        }
+        Map<String, Integer> operations = new LinkedHashMap<>();
+        int total = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> it = operationsJson.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode share = field.getValue();
+            if (!share.isIntegralNumber() || !share.canConvertToInt() || share.intValue() < 0) {
+                throw new IllegalArgumentException("Share of operation " + field.getKey() + " must be a whole, non-negative percentage, got: " + share);
+            }
+            operations.put(field.getKey(), share.intValue());
+            total += share.intValue();
+        }
+        if (total != 100) {
+            throw new IllegalArgumentException("Operation percentages add up to " + total + ", not 100: " + operations);
+        }
+        String keyDistribution = text(json, "keyDistribution", "uniform");
+        if (!keyDistribution.equals("uniform") && !keyDistribution.equals("zipfian") && !keyDistribution.equals("latest")) {
+            throw new IllegalArgumentException("Unknown key distribution " + keyDistribution + ", expected uniform, zipfian or latest");
+        }
+        return new Workload(
+                text(json, "name", "workload"),
+                whole(json, "persons", 10_000),
+                integer(json, "versions", 3),
+                integer(json, "valueSize", 16),
+                integer(json, "pageSize", 10),
+                integer(json, "batchSize", 10),
+                keyDistribution,
+                number(json, "zipfianConstant", 0.99),
+                integer(json, "workers", Runtime.getRuntime().availableProcessors()),
+                number(json, "targetRate", 0),
+                Duration.ofSeconds(whole(json, "warmupSeconds", 2)),
+                Duration.ofSeconds(whole(json, "durationSeconds", 10)),
+                integer(json, "retries", 0),
+                whole(json, "seed", 1),
+                operations
+        );
+    }
+
+    static String text(JsonNode json, String field, String defaultValue) {
+        JsonNode value = json.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(field + " must be a string, got: " + value);
+        }
+        return value.textValue();
+    }
+
+    static int integer(JsonNode json, String field, int defaultValue) {
+        JsonNode value = json.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+            throw new IllegalArgumentException(field + " must be a whole number, got: " + value);
+        }
+        return value.intValue();
+    }
+
+    static long whole(JsonNode json, String field, long defaultValue) {
+        JsonNode value = json.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+            throw new IllegalArgumentException(field + " must be a whole number, got: " + value);
+        }
+        return value.longValue();
+    }
+
+    static double number(JsonNode json, String field, double defaultValue) {
+        JsonNode value = json.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException(field + " must be a number, got: " + value);
+        }
+        return value.doubleValue();
+    }
+
+    public static Workload read(Path path) {
+        try {
+            return fromJson(mapper.readTree(path.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long persons() {
+        return persons;
+    }
+
+    public int versions() {
+        return versions;
+    }
+
+    public int valueSize() {
+        return valueSize;
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the key distribution over the persons of the workload.
+     */
+    public KeyDistribution keyDistribution() {
+        switch (keyDistribution) {
+            case "zipfian":
+                return KeyDistribution.zipfian(persons, zipfianConstant);
+            case "latest":
+                return KeyDistribution.latest(persons, zipfianConstant);
+            default:
+                return KeyDistribution.uniform(persons);
+        }
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    public double targetRate() {
+        return targetRate;
+    }
+
+    public Duration warmup() {
+        return warmup;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    public int retries() {
+        return retries;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return the share of each operation in percent.
+     */
+    public Map<String, Integer> operations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d persons with %d versions, %s keys, %d workers, %s, %s", name, persons, versions,
+                keyDistribution, workers, targetRate > 0 ? targetRate + " ops/s" : "unthrottled", operations);
+    }
+}
@@ -0,0 +1,75 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.Ingest;
+import no.ssb.lds.core.persistence.benchmark.baseline.BenchmarkResults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a {@link Workload} against a persistence: writes the {@link StandardOperations} data-set sized by the
+ * workload into an emptied namespace, drives the operation mix with a {@link LoadDriver} and deletes the data-set
+ * again.
+ */
+public class WorkloadRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkloadRunner.class);
+
+    private final RxJsonPersistence persistence;
+    private final String namespace;
+
+    public WorkloadRunner(RxJsonPersistence persistence, String namespace) {
+        this.persistence = persistence;
+        this.namespace = namespace;
+    }
+
+    public LoadReport run(Workload workload) throws InterruptedException {
+        StandardOperations operations = new StandardOperations(namespace, workload.persons(), workload.versions())
+                .valueSize(workload.valueSize())
+                .pageSize(workload.pageSize())
+                .batchSize(workload.batchSize())
+                .keyDistribution(workload.keyDistribution());
+        LoadDriver driver = operations.register(new LoadDriver(persistence), workload.operations())
+                .workers(workload.workers())
+                .targetRate(workload.targetRate())
+                .warmup(workload.warmup())
+                .duration(workload.duration())
+                .retries(workload.retries())
+                .seed(workload.seed());
+
+        Ingest.deleteAll(persistence, operations.specification(), namespace);
+        try {
+            LOG.info("Populating {}", workload);
+            operations.populate(persistence);
+            LOG.info("Running {}", workload.name());
+            LoadReport report = driver.run();
+            LOG.info("Load report of {} for {}:\n{}", workload.name(), persistence.getClass().getSimpleName(), report);
+            return report;
+        } finally {
+            Ingest.deleteAll(persistence, operations.specification(), namespace);
+        }
+    }
+
+    /**
+     * Arguments are the workload file, the persistence class, which must have a public no-argument constructor, and
+     * optionally a results file to write the report to as {@link BenchmarkResults}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: WorkloadRunner <workload.json> <persistence class> [results.json]");
+            System.exit(2);
+        }
+        Workload workload = Workload.read(Path.of(args[0]));
+        RxJsonPersistence persistence = (RxJsonPersistence) Class.forName(args[1]).getDeclaredConstructor().newInstance();
+        try {
+            LoadReport report = new WorkloadRunner(persistence, "workload").run(workload);
+            if (args.length > 2) {
+                BenchmarkResults.of(persistence.getClass().getSimpleName(), report).write(Path.of(args[2]));
+            }
+        } finally {
+            persistence.close();
+        }
+    }
+}
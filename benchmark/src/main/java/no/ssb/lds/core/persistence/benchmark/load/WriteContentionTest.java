@@ -0,0 +1,143 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.benchmark.Ingest;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.time.ZonedDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Overwrites a few hot documents from many concurrent workers: every worker writes either the same version of the
+ * same document, or one of a few versions a millisecond apart of one of a few neighbouring ids. Failed writes are
+ * retried, and the report logs throughput, retries, aborted writes (errors) and latency percentiles of both. The
+ * test then checks that each document has exactly one version per written timestamp, and that every version is
+ * whole: each write derives all values from one random token, so a version mixing the values of two writes is
+ * caught.
+ * <p>
+ * Configured with the system properties lds.contention.workers (defaults to twice the number of processors, at
+ * least 4), lds.contention.seconds, lds.contention.ids, lds.contention.timestamps and lds.contention.retries.
+ * <p>
+ * Subclasses assign the persistence in their constructor or in a BeforeClass method. The namespace is emptied before
+ * the first test rather than in a BeforeClass method of this class, as TestNG runs those before the ones of the
+ * subclass.
+ */
+public abstract class WriteContentionTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteContentionTest.class);
+
+    static final String ENTITY = "Address";
+    static final ZonedDateTime TIMESTAMP = parse("2000-01-01T00:00:00.000Z");
+
+    protected final String namespace;
+    protected final Specification specification = PersonAddressFixtures.specification();
+    protected final int ids = Integer.getInteger("lds.contention.ids", 4);
+    protected final int timestamps = Integer.getInteger("lds.contention.timestamps", 4);
+    protected RxJsonPersistence persistence;
+
+    private final Set<String> attempted = ConcurrentHashMap.newKeySet();
+    private boolean emptied;
+
+    protected WriteContentionTest(String namespace) {
+        this.namespace = namespace;
+    }
+
+    @BeforeMethod
+    public synchronized void emptyNamespace() {
+        if (!emptied) {
+            Ingest.deleteAll(persistence, specification, namespace);
+            emptied = true;
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (emptied) {
+            Ingest.deleteAll(persistence, specification, namespace);
+            emptied = false;
+        }
+    }
+
+    @Test
+    public void thatConcurrentOverwritesKeepOneVersionPerTimestamp() throws InterruptedException {
+        LoadReport report = new LoadDriver(persistence)
+                .workers(Integer.getInteger("lds.contention.workers", Math.max(4, 2 * Runtime.getRuntime().availableProcessors())))
+                .warmup(Duration.ofSeconds(1))
+                .duration(Duration.ofSeconds(Long.getLong("lds.contention.seconds", 10)))
+                .retries(Integer.getInteger("lds.contention.retries", 3))
+                .operation("overwriteSameKey", 1, false, this::overwriteSameKey)
+                .operation("overwriteNearbyKeys", 1, false, this::overwriteNearbyKeys)
+                .run();
+
+        LOG.info("Write contention report for {}, {} retries and {} aborted writes:\n{}",
+                persistence.getClass().getSimpleName(), report.retries(), report.errors(), report);
+
+        assertThat(report.count()).as("writes").isPositive();
+
+        Set<String> found = new HashSet<>();
+        try (Transaction tx = persistence.createTransaction(true)) {
+            for (int i = 0; i < ids; i++) {
+                List<JsonDocument> versions = persistence.readDocumentVersions(tx, namespace, ENTITY, id(i), Range.unbounded())
+                        .toList().blockingGet();
+                for (JsonDocument version : versions) {
+                    String key = key(id(i), version.key().timestamp().toInstant());
+                    assertThat(found.add(key)).as("single version of %s", key).isTrue();
+                    assertThat(attempted).as("written versions").contains(key);
+                    String city = version.jackson().path("city").textValue();
+                    assertThat(city).as("city of %s", key).startsWith("City ");
+                    String token = city.substring("City ".length());
+                    assertThat(version.jackson().path("state").textValue()).as("state of %s", key).isEqualTo("State " + token);
+                    assertThat(version.jackson().path("country").textValue()).as("country of %s", key).isEqualTo("Country " + token);
+                }
+            }
+        }
+        if (report.errors() == 0) {
+            assertThat(found).as("versions after all writes succeeded").isEqualTo(attempted);
+        }
+    }
+
+    void overwriteSameKey(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        write(persistence, transaction, id(0), TIMESTAMP, random);
+    }
+
+    /**
+     * Overwrites one of the versions a millisecond apart of one of the neighbouring ids.
+     */
+    void overwriteNearbyKeys(RxJsonPersistence persistence, Transaction transaction, SplittableRandom random) {
+        write(persistence, transaction, id(random.nextInt(ids)), TIMESTAMP.plusNanos(random.nextInt(timestamps) * 1_000_000L), random);
+    }
+
+    void write(RxJsonPersistence persistence, Transaction transaction, String id, ZonedDateTime timestamp, SplittableRandom random) {
+        attempted.add(key(id, timestamp.toInstant()));
+        int token = random.nextInt(Integer.MAX_VALUE);
+        persistence.createOrOverwrite(transaction, new JsonDocument(new DocumentKey(namespace, ENTITY, id, timestamp),
+                PersonAddressFixtures.createAddress("City " + token, "State " + token, "Country " + token)), specification).blockingAwait();
+    }
+
+    static String id(int i) {
+        return "hot" + i;
+    }
+
+    static String key(String id, Instant timestamp) {
+        return id + "@" + timestamp;
+    }
+}
@@ -0,0 +1,13 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.CascadeHubBenchmark;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryCascadeHubBenchmark extends CascadeHubBenchmark {
+
+    @Override
+    protected RxJsonPersistence createPersistence() {
+        return new MemoryPersistence();
+    }
+}
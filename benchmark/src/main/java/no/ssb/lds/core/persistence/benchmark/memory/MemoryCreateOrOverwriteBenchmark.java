@@ -0,0 +1,13 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.CreateOrOverwriteBenchmark;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryCreateOrOverwriteBenchmark extends CreateOrOverwriteBenchmark {
+
+    @Override
+    protected RxJsonPersistence createPersistence() {
+        return new MemoryPersistence();
+    }
+}
@@ -0,0 +1,13 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.DeleteAllEntitiesBenchmark;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryDeleteAllEntitiesBenchmark extends DeleteAllEntitiesBenchmark {
+
+    @Override
+    protected RxJsonPersistence createPersistence() {
+        return new MemoryPersistence();
+    }
+}
@@ -0,0 +1,13 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.benchmark.SourceDocumentsBenchmark;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemorySourceDocumentsBenchmark extends SourceDocumentsBenchmark {
+
+    @Override
+    protected RxJsonPersistence createPersistence() {
+        return new MemoryPersistence();
+    }
+}
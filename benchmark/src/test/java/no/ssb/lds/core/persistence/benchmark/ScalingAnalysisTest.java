@@ -0,0 +1,54 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.core.persistence.benchmark.ScalingAnalysis.Growth;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class ScalingAnalysisTest {
+
+    static final long[] SIZES = {10, 100, 1000, 10_000, 100_000};
+
+    static ScalingAnalysis analyse(long[] sizes, LongToDoubleFunction cost) {
+        Map<Long, Double> costBySize = new TreeMap<>();
+        for (long size : sizes) {
+            costBySize.put(size, cost.applyAsDouble(size));
+        }
+        return ScalingAnalysis.of(costBySize);
+    }
+
+    @Test
+    public void thatLinearCostOnFixedOverheadIsLinear() {
+        ScalingAnalysis analysis = analyse(SIZES, n -> 20 + 0.001 * n);
+        assertThat(analysis.exponent()).isLessThan(0.5);
+        assertThat(analysis.growth()).isEqualTo(Growth.LINEAR);
+        assertThat(analysis.fixedCost()).isCloseTo(20, offset(0.01));
+    }
+
+    @Test
+    public void thatLogarithmicCostIsLogarithmic() {
+        assertThat(analyse(SIZES, n -> 5 + 2 * Math.log(n)).growth()).isEqualTo(Growth.LOGARITHMIC);
+        assertThat(analyse(new long[]{1000, 100_000, 10_000_000}, n -> 0.3 * Math.log(n)).growth()).isEqualTo(Growth.LOGARITHMIC);
+    }
+
+    @Test
+    public void thatNoisyFlatCostIsConstant() {
+        assertThat(analyse(SIZES, n -> 10 + (n % 7) * 0.3).growth()).isEqualTo(Growth.CONSTANT);
+    }
+
+    @Test
+    public void thatQuadraticCostIsSuperlinear() {
+        assertThat(analyse(SIZES, n -> 1 + 1e-6 * n * n).growth()).isEqualTo(Growth.SUPERLINEAR);
+    }
+
+    @Test
+    public void thatTwoSizesAreClassifiedByExponent() {
+        assertThat(analyse(new long[]{1000, 10_000}, n -> 0.01 * n).growth()).isEqualTo(Growth.LINEAR);
+        assertThat(analyse(new long[]{1000, 10_000}, n -> 5).growth()).isEqualTo(Growth.CONSTANT);
+    }
+}
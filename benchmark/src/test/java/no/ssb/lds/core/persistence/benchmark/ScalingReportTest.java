@@ -0,0 +1,72 @@
+package no.ssb.lds.core.persistence.benchmark;
+
+import no.ssb.lds.core.persistence.benchmark.ScalingAnalysis.Growth;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AverageTimeResult;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.IterationResultMetaData;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScalingReportTest {
+
+    static final long[] SIZES = {10, 100, 1000, 10_000, 100_000};
+
+    /**
+     * @return the result of an average time run of the given method that took the given microseconds per operation.
+     */
+    static RunResult result(String method, Map<String, String> values, double micros) {
+        WorkloadParams workloadParams = new WorkloadParams();
+        values.forEach((key, value) -> workloadParams.put(key, value, 0));
+        IterationParams iteration = new IterationParams(IterationType.MEASUREMENT, 1, TimeValue.seconds(1), 1);
+        BenchmarkParams params = new BenchmarkParams(ScalingReportTest.class.getName() + "." + method, "generated",
+                false, 1, new int[]{1}, List.of(), 1, 0, iteration, iteration, Mode.AverageTime, workloadParams,
+                TimeUnit.MICROSECONDS, 1, "java", List.of(), "11", "vm", "11", "1.21", TimeValue.minutes(10));
+        IterationResult iterationResult = new IterationResult(params, iteration, new IterationResultMetaData(1000, 1000));
+        iterationResult.addResult(new AverageTimeResult(ResultRole.PRIMARY, method, 1000,
+                Math.round(1000 * micros * 1000), TimeUnit.MICROSECONDS));
+        return new RunResult(params, List.of(new BenchmarkResult(params, List.of(iterationResult))));
+    }
+
+    @Test
+    public void thatEachValueOfAnotherParameterIsAnalysedSeparately() {
+        List<RunResult> results = new ArrayList<>();
+        for (long size : SIZES) {
+            results.add(result("delete", Map.of("documents", Long.toString(size), "policy", "FAIL"), 20));
+            results.add(result("delete", Map.of("documents", Long.toString(size), "policy", "CASCADE"), 20 + 0.01 * size));
+        }
+
+        Map<String, ScalingAnalysis> analysis = ScalingReport.analyse(results, "documents");
+
+        assertThat(analysis).containsOnlyKeys("delete[policy=FAIL]", "delete[policy=CASCADE]");
+        assertThat(analysis.get("delete[policy=FAIL]").growth()).isEqualTo(Growth.CONSTANT);
+        assertThat(analysis.get("delete[policy=CASCADE]").growth()).isEqualTo(Growth.LINEAR);
+    }
+
+    @Test
+    public void thatMethodsWithoutOtherParametersAreKeyedByName() {
+        List<RunResult> results = new ArrayList<>();
+        for (long size : SIZES) {
+            results.add(result("read", Map.of("documents", Long.toString(size)), 5 + 2 * Math.log(size)));
+        }
+
+        Map<String, ScalingAnalysis> analysis = ScalingReport.analyse(results, "documents");
+
+        assertThat(analysis).containsOnlyKeys("read");
+        assertThat(analysis.get("read").growth()).isEqualTo(Growth.LOGARITHMIC);
+    }
+}
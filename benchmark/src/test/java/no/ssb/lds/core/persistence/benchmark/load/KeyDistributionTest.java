@@ -0,0 +1,94 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KeyDistributionTest {
+
+    static final int KEYS = 1000;
+    static final int DRAWS = 200_000;
+
+    static long[] counts(KeyDistribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] counts = new long[KEYS];
+        for (int i = 0; i < DRAWS; i++) {
+            long key = distribution.next(random);
+            assertThat(key).isBetween(0L, KEYS - 1L);
+            counts[(int) key]++;
+        }
+        return counts;
+    }
+
+    static int mostPopular(long[] counts) {
+        int key = 0;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] > counts[key]) {
+                key = i;
+            }
+        }
+        return key;
+    }
+
+    @Test
+    public void thatUniformKeysAreEquallyLikely() {
+        long[] counts = counts(KeyDistribution.uniform(KEYS), 1);
+        long expected = DRAWS / KEYS;
+        for (long count : counts) {
+            assertThat(count).isBetween(expected / 2, expected * 2);
+        }
+    }
+
+    @Test
+    public void thatZipfianKeysAreSkewedAndScattered() {
+        long[] counts = counts(KeyDistribution.zipfian(KEYS, 0.99), 1);
+        int hottest = mostPopular(counts);
+
+        assertThat(counts[hottest]).as("draws of the most popular key").isGreaterThan(DRAWS / 20);
+        long lowKeys = 0;
+        for (int key = 1; key < 10; key++) {
+            lowKeys += counts[key];
+        }
+        assertThat(lowKeys).as("draws of keys 1 to 9, a quarter of all if popularity followed the key").isLessThan(DRAWS / 20);
+        long unpopular = 0;
+        for (long count : counts) {
+            if (count < DRAWS / KEYS) {
+                unpopular++;
+            }
+        }
+        assertThat(unpopular).as("keys drawn less than average").isGreaterThan(KEYS / 2);
+    }
+
+    @Test
+    public void thatLatestFavoursTheHighestKeys() {
+        long[] counts = counts(KeyDistribution.latest(KEYS, 0.99), 1);
+
+        assertThat(mostPopular(counts)).isEqualTo(KEYS - 1);
+        assertThat(counts[KEYS - 1]).isGreaterThan(counts[KEYS - 2]).isGreaterThan(counts[0]);
+    }
+
+    @Test
+    public void thatDrawsAreDeterministicFromTheSeed() {
+        assertThat(counts(KeyDistribution.zipfian(KEYS, 0.99), 7)).isEqualTo(counts(KeyDistribution.zipfian(KEYS, 0.99), 7));
+        assertThat(counts(KeyDistribution.zipfian(KEYS, 0.99), 7)).isNotEqualTo(counts(KeyDistribution.zipfian(KEYS, 0.99), 8));
+    }
+
+    @Test
+    public void thatSingleKeyIsAlwaysDrawn() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(KeyDistribution.zipfian(1, 0.99).next(random)).isZero();
+            assertThat(KeyDistribution.latest(1, 0.99).next(random)).isZero();
+        }
+    }
+
+    @Test
+    public void thatInvalidParametersAreRejected() {
+        assertThatThrownBy(() -> KeyDistribution.zipfian(0, 0.99)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeyDistribution.zipfian(KEYS, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeyDistribution.latest(KEYS, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
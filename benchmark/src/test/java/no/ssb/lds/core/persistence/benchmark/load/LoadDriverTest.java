@@ -0,0 +1,62 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadDriverTest {
+
+    static LoadDriver driver() {
+        return new LoadDriver(new MemoryPersistence())
+                .workers(1)
+                .warmup(Duration.ZERO)
+                .duration(Duration.ofMillis(200));
+    }
+
+    @Test
+    public void thatOperationsFailingEveryAttemptAreRetriedAsConfigured() throws InterruptedException {
+        LoadReport report = driver()
+                .retries(2)
+                .operation("fail", 1, true, (persistence, transaction, random) -> {
+                    throw new IllegalStateException("fail");
+                })
+                .run();
+
+        assertThat(report.count()).isPositive();
+        assertThat(report.errors()).isEqualTo(report.count());
+        assertThat(report.retries()).isEqualTo(2 * report.count());
+    }
+
+    @Test
+    public void thatOperationsSucceedingOnRetryAreNotErrors() throws InterruptedException {
+        AtomicLong attempts = new AtomicLong();
+        LoadReport report = driver()
+                .retries(2)
+                .operation("flaky", 1, true, (persistence, transaction, random) -> {
+                    if (attempts.getAndIncrement() % 2 == 0) {
+                        throw new IllegalStateException("flaky");
+                    }
+                })
+                .run();
+
+        assertThat(report.count()).isPositive();
+        assertThat(report.errors()).isZero();
+        assertThat(report.retries()).isEqualTo(report.count());
+    }
+
+    @Test
+    public void thatOperationsAreNotRetriedByDefault() throws InterruptedException {
+        LoadReport report = driver()
+                .operation("fail", 1, true, (persistence, transaction, random) -> {
+                    throw new IllegalStateException("fail");
+                })
+                .run();
+
+        assertThat(report.errors()).isEqualTo(report.count()).isPositive();
+        assertThat(report.retries()).isZero();
+    }
+}
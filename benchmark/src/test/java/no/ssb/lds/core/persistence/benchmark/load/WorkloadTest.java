@@ -0,0 +1,126 @@
+package no.ssb.lds.core.persistence.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WorkloadTest {
+
+    static JsonNode json(String json) {
+        try {
+            return mapper.readTree(json.replace('\'', '"'));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static Workload workload(String json) {
+        return Workload.fromJson(json(json));
+    }
+
+    @Test
+    public void thatEveryFieldIsRead() {
+        Workload workload = workload("{'name': 'read-mostly', 'persons': 100000, 'versions': 2, 'valueSize': 32, 'pageSize': 20," +
+                " 'batchSize': 50, 'keyDistribution': 'zipfian', 'zipfianConstant': 0.9, 'workers': 16, 'targetRate': 2000.5," +
+                " 'warmupSeconds': 5, 'durationSeconds': 300, 'retries': 3, 'seed': 42," +
+                " 'operations': {'readDocument': 70, 'readDocuments': 20, 'createOrOverwrite': 10}}");
+
+        assertThat(workload.name()).isEqualTo("read-mostly");
+        assertThat(workload.persons()).isEqualTo(100_000);
+        assertThat(workload.versions()).isEqualTo(2);
+        assertThat(workload.valueSize()).isEqualTo(32);
+        assertThat(workload.pageSize()).isEqualTo(20);
+        assertThat(workload.batchSize()).isEqualTo(50);
+        assertThat(workload.workers()).isEqualTo(16);
+        assertThat(workload.targetRate()).isEqualTo(2000.5);
+        assertThat(workload.warmup()).isEqualTo(Duration.ofSeconds(5));
+        assertThat(workload.duration()).isEqualTo(Duration.ofSeconds(300));
+        assertThat(workload.retries()).isEqualTo(3);
+        assertThat(workload.seed()).isEqualTo(42);
+        assertThat(workload.operations()).containsExactly(
+                Map.entry("readDocument", 70), Map.entry("readDocuments", 20), Map.entry("createOrOverwrite", 10));
+    }
+
+    @Test
+    public void thatOmittedFieldsHaveDefaults() {
+        Workload workload = workload("{'operations': {'readDocument': 100}}");
+
+        assertThat(workload.name()).isEqualTo("workload");
+        assertThat(workload.persons()).isEqualTo(10_000);
+        assertThat(workload.versions()).isEqualTo(3);
+        assertThat(workload.workers()).isEqualTo(Runtime.getRuntime().availableProcessors());
+        assertThat(workload.targetRate()).isZero();
+        assertThat(workload.duration()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(workload.keyDistribution()).isNotNull();
+    }
+
+    @Test
+    public void thatSharesMustBeWholePercentagesAddingUpTo100() {
+        assertThatThrownBy(() -> workload("{'operations': {'readDocument': 70.5, 'readDocuments': 29.5}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("readDocument").hasMessageContaining("70.5");
+        assertThatThrownBy(() -> workload("{'operations': {'readDocument': '100'}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("whole");
+        assertThatThrownBy(() -> workload("{'operations': {'readDocument': 110, 'readDocuments': -10}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("readDocuments");
+        assertThatThrownBy(() -> workload("{'operations': {'readDocument': 90}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("add up to 90");
+        assertThatThrownBy(() -> workload("{'persons': 10}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("without operations");
+    }
+
+    @Test
+    public void thatUnknownFieldsAreRejected() {
+        assertThatThrownBy(() -> workload("{'durationSecs': 60, 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("durationSecs");
+    }
+
+    @Test
+    public void thatValuesOutOfRangeAreRejected() {
+        for (String field : Workload.POSITIVE_FIELDS) {
+            assertThatThrownBy(() -> workload("{'" + field + "': 0, 'operations': {'readDocument': 100}}"))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessageContaining(field).hasMessageContaining("positive");
+            assertThatThrownBy(() -> workload("{'" + field + "': -1, 'operations': {'readDocument': 100}}"))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessageContaining(field).hasMessageContaining("positive");
+        }
+        for (String field : Workload.NON_NEGATIVE_FIELDS) {
+            assertThatThrownBy(() -> workload("{'" + field + "': -1, 'operations': {'readDocument': 100}}"))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessageContaining(field).hasMessageContaining("negative");
+        }
+        assertThatThrownBy(() -> workload("{'zipfianConstant': 1, 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("zipfianConstant");
+        assertThatThrownBy(() -> workload("{'zipfianConstant': 0, 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("zipfianConstant");
+    }
+
+    @Test
+    public void thatZeroIsAcceptedWhereItHasAMeaning() {
+        Workload workload = workload("{'targetRate': 0, 'warmupSeconds': 0, 'retries': 0, 'operations': {'readDocument': 100}}");
+
+        assertThat(workload.targetRate()).isZero();
+        assertThat(workload.warmup()).isEqualTo(Duration.ZERO);
+        assertThat(workload.retries()).isZero();
+    }
+
+    @Test
+    public void thatValuesOfTheWrongTypeAreRejected() {
+        assertThatThrownBy(() -> workload("{'persons': 'many', 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("persons");
+        assertThatThrownBy(() -> workload("{'workers': 2.5, 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("workers");
+        assertThatThrownBy(() -> workload("{'targetRate': 'fast', 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("targetRate");
+        assertThatThrownBy(() -> workload("{'keyDistribution': 1, 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("keyDistribution");
+        assertThatThrownBy(() -> workload("{'keyDistribution': 'gaussian', 'operations': {'readDocument': 100}}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("gaussian");
+        assertThatThrownBy(() -> workload("[]"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("JSON object");
+    }
+}
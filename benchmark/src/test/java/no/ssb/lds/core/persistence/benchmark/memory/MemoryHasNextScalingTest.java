@@ -0,0 +1,12 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.core.persistence.benchmark.HasNextScalingTest;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryHasNextScalingTest extends HasNextScalingTest {
+
+    public MemoryHasNextScalingTest() {
+        super("hasnext");
+        persistence = new MemoryPersistence();
+    }
+}
@@ -0,0 +1,12 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.core.persistence.benchmark.PaginationScalingTest;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryPaginationScalingTest extends PaginationScalingTest {
+
+    public MemoryPaginationScalingTest() {
+        super("pagination");
+        persistence = new MemoryPersistence();
+    }
+}
@@ -0,0 +1,12 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.core.persistence.benchmark.load.PersistenceLoadTest;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryPersistenceLoadTest extends PersistenceLoadTest {
+
+    public MemoryPersistenceLoadTest() {
+        super("load");
+        persistence = new MemoryPersistence();
+    }
+}
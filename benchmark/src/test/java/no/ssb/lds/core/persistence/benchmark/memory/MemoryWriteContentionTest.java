@@ -0,0 +1,12 @@
+package no.ssb.lds.core.persistence.benchmark.memory;
+
+import no.ssb.lds.core.persistence.benchmark.load.WriteContentionTest;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+
+public class MemoryWriteContentionTest extends WriteContentionTest {
+
+    public MemoryWriteContentionTest() {
+        super("contention");
+        persistence = new MemoryPersistence();
+    }
+}
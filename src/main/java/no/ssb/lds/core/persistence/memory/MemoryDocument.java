@@ -0,0 +1,138 @@
+package no.ssb.lds.core.persistence.memory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.SpecificationElement;
+import no.ssb.lds.api.specification.SpecificationElementType;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One stored version of a document, together with its links grouped by path. Paths use the JsonNavigationPath
+ * notation, e.g. $.history.previousAddresses[] for the items of an array.
+ */
+final class MemoryDocument {
+
+    final DocumentKey key;
+    final JsonNode json;
+    final Map<String, List<String>> linksByPath;
+
+    private MemoryDocument(DocumentKey key, JsonNode json, Map<String, List<String>> linksByPath) {
+        this.key = key;
+        this.json = json;
+        this.linksByPath = linksByPath;
+    }
+
+    static MemoryDocument of(JsonDocument document, SpecificationElement managedElement) {
+        JsonNode json = document.jackson().deepCopy();
+        Map<String, List<String>> linksByPath = new LinkedHashMap<>();
+        flatten("$", json, managedElement, false, null, linksByPath);
+        Map<String, List<String>> compactLinksByPath = new LinkedHashMap<>();
+        linksByPath.forEach((path, links) -> compactLinksByPath.put(path, List.copyOf(links)));
+        return new MemoryDocument(document.key(), json, compactLinksByPath.isEmpty() ? Map.of() : compactLinksByPath);
+    }
+
+    static MemoryDocument deleteMarker(DocumentKey key) {
+        return new MemoryDocument(key, null, Map.of());
+    }
+
+    /**
+     * @return all values of the document grouped by path.
+     */
+    Map<String, List<String>> values() {
+        Map<String, List<String>> valuesByPath = new LinkedHashMap<>();
+        if (json != null) {
+            flatten("$", json, null, false, valuesByPath, null);
+        }
+        return valuesByPath;
+    }
+
+    private static void flatten(String path, JsonNode node, SpecificationElement element, boolean ref, Map<String, List<String>> valuesByPath, Map<String, List<String>> linksByPath) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                SpecificationElement child = element == null || element.getProperties() == null ? null : element.getProperties().get(field.getKey());
+                boolean childRef = child != null && child.getSpecificationElementType() == SpecificationElementType.REF;
+                flatten(path + "." + field.getKey(), field.getValue(), child, childRef, valuesByPath, linksByPath);
+            }
+        } else if (node.isArray()) {
+            SpecificationElement items = element == null ? null : element.getItems();
+            for (JsonNode item : node) {
+                flatten(path + "[]", item, items, ref, valuesByPath, linksByPath);
+            }
+        } else if (!node.isNull()) {
+            if (valuesByPath != null) {
+                valuesByPath.computeIfAbsent(path, p -> new ArrayList<>()).add(node.asText());
+            }
+            if (ref && linksByPath != null) {
+                linksByPath.computeIfAbsent(path, p -> new ArrayList<>()).add(node.asText());
+            }
+        }
+    }
+
+    /**
+     * @return the entity and id of a link on the form /Entity/id, or null if the link is malformed.
+     */
+    static String[] parseLink(String link) {
+        int separator = link.indexOf('/', 1);
+        if (!link.startsWith("/") || separator < 0 || separator == link.length() - 1) {
+            return null;
+        }
+        return new String[]{link.substring(1, separator), link.substring(separator + 1)};
+    }
+
+    static String link(String entity, String id) {
+        return "/" + entity + "/" + id;
+    }
+
+    boolean deleted() {
+        return json == null;
+    }
+
+    boolean hasValue(String path, String value) {
+        if (json == null || !path.startsWith("$")) {
+            return false;
+        }
+        return hasValue(json, path, 1, value);
+    }
+
+    private static boolean hasValue(JsonNode node, String path, int position, String value) {
+        if (position == path.length()) {
+            return node.isValueNode() && !node.isNull() && value.equals(node.asText());
+        }
+        if (path.startsWith("[]", position)) {
+            if (!node.isArray()) {
+                return false;
+            }
+            for (JsonNode item : node) {
+                if (hasValue(item, path, position + 2, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (path.charAt(position) != '.' || !node.isObject()) {
+            return false;
+        }
+        int end = position + 1;
+        while (end < path.length() && path.charAt(end) != '.' && !path.startsWith("[]", end)) {
+            end++;
+        }
+        JsonNode child = node.get(path.substring(position + 1, end));
+        return child != null && hasValue(child, path, end, value);
+    }
+
+    List<String> links(String path) {
+        return linksByPath.getOrDefault(path, List.of());
+    }
+
+    JsonDocument toJsonDocument() {
+        return new JsonDocument(key, json);
+    }
+}
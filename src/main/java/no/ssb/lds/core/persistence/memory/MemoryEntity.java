@@ -0,0 +1,234 @@
+package no.ssb.lds.core.persistence.memory;
+
+import no.ssb.lds.api.persistence.reactivex.Range;
+
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * All documents of one entity in one namespace. Documents are kept sorted by id, and the versions of each document
+ * sorted by timestamp. The value and incoming link indexes hold the ids of documents that have the value or link in
+ * any of their stored versions, so every hit must be verified against the version resolved at the snapshot being
+ * read. An id is removed from the indexes when the last of its versions with the value or link is overwritten or
+ * deleted, and emptied sets are removed with it. Additions and removals of the same value or target id are made
+ * under the same map entry lock, so a concurrent write of a version with the value is not lost.
+ */
+final class MemoryEntity {
+
+    final String namespace;
+    final String name;
+
+    final ConcurrentSkipListMap<String, ConcurrentSkipListMap<ZonedDateTime, MemoryDocument>> versionsById = new ConcurrentSkipListMap<>();
+
+    /**
+     * path -> value -> ids of documents with a stored version that has the value at the path.
+     */
+    final ConcurrentMap<String, ConcurrentMap<String, ConcurrentSkipListSet<String>>> idsByPathAndValue = new ConcurrentHashMap<>();
+
+    /**
+     * target id -> relation -> ids of source documents with a stored version that links to the target through the
+     * relation.
+     */
+    final ConcurrentMap<String, ConcurrentMap<Relation, ConcurrentSkipListSet<String>>> incomingByTargetId = new ConcurrentHashMap<>();
+
+    MemoryEntity(String namespace, String name) {
+        this.namespace = namespace;
+        this.name = name;
+    }
+
+    /**
+     * @return the version with the same timestamp that the document overwrote, or null.
+     */
+    MemoryDocument put(MemoryDocument document) {
+        String id = document.key.id();
+        MemoryDocument overwritten = versionsById.computeIfAbsent(id, k -> new ConcurrentSkipListMap<>(ChronoZonedDateTime.timeLineOrder()))
+                .put(document.key.timestamp(), document);
+        for (Map.Entry<String, List<String>> entry : document.values().entrySet()) {
+            ConcurrentMap<String, ConcurrentSkipListSet<String>> idsByValue = idsByPathAndValue.computeIfAbsent(entry.getKey(), p -> new ConcurrentHashMap<>());
+            for (String value : entry.getValue()) {
+                idsByValue.compute(value, (v, ids) -> {
+                    ConcurrentSkipListSet<String> result = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                    result.add(id);
+                    return result;
+                });
+            }
+        }
+        if (overwritten != null) {
+            unindexValues(overwritten);
+        }
+        return overwritten;
+    }
+
+    /**
+     * Removes the id of a version that is no longer stored from the value index, for each of its values that no
+     * other stored version of the document has.
+     */
+    private void unindexValues(MemoryDocument removed) {
+        String id = removed.key.id();
+        for (Map.Entry<String, List<String>> entry : removed.values().entrySet()) {
+            String path = entry.getKey();
+            ConcurrentMap<String, ConcurrentSkipListSet<String>> idsByValue = idsByPathAndValue.get(path);
+            if (idsByValue == null) {
+                continue;
+            }
+            for (String value : new HashSet<>(entry.getValue())) {
+                idsByValue.computeIfPresent(value, (v, ids) -> {
+                    if (!anyVersion(id, version -> version.hasValue(path, value))) {
+                        ids.remove(id);
+                    }
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    void addIncoming(String targetId, Relation relation, String sourceId) {
+        incomingByTargetId.compute(targetId, (t, sourceIdsByRelation) -> {
+            ConcurrentMap<Relation, ConcurrentSkipListSet<String>> result = sourceIdsByRelation == null ? new ConcurrentHashMap<>() : sourceIdsByRelation;
+            result.computeIfAbsent(relation, r -> new ConcurrentSkipListSet<>()).add(sourceId);
+            return result;
+        });
+    }
+
+    /**
+     * Removes the source from the incoming links of the target, unless it still links to the target in another
+     * stored version.
+     */
+    void removeIncoming(String targetId, Relation relation, String sourceId, BooleanSupplier stillLinked) {
+        incomingByTargetId.computeIfPresent(targetId, (t, sourceIdsByRelation) -> {
+            ConcurrentSkipListSet<String> sourceIds = sourceIdsByRelation.get(relation);
+            if (sourceIds != null && !stillLinked.getAsBoolean()) {
+                sourceIds.remove(sourceId);
+                if (sourceIds.isEmpty()) {
+                    sourceIdsByRelation.remove(relation);
+                }
+            }
+            return sourceIdsByRelation.isEmpty() ? null : sourceIdsByRelation;
+        });
+    }
+
+    /**
+     * Empties the value index. Called once all documents are deleted, to drop the maps of paths that no longer have
+     * any values.
+     */
+    void clearValueIndex() {
+        idsByPathAndValue.clear();
+    }
+
+    Map<Relation, ConcurrentSkipListSet<String>> incoming(String targetId) {
+        return incomingByTargetId.getOrDefault(targetId, new ConcurrentHashMap<>());
+    }
+
+    NavigableSet<String> incoming(String targetId, Relation relation) {
+        NavigableSet<String> sourceIds = incoming(targetId).get(relation);
+        return sourceIds == null ? Collections.emptyNavigableSet() : sourceIds;
+    }
+
+    NavigableSet<String> idsWithValue(String path, String value) {
+        Map<String, ConcurrentSkipListSet<String>> idsByValue = idsByPathAndValue.get(path);
+        NavigableSet<String> ids = idsByValue == null ? null : idsByValue.get(value);
+        return ids == null ? Collections.emptyNavigableSet() : ids;
+    }
+
+    /**
+     * @return the version of the document that is current at the snapshot, which may be a delete marker, or null.
+     */
+    MemoryDocument version(String id, ZonedDateTime snapshot) {
+        ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> versions = versionsById.get(id);
+        if (versions == null) {
+            return null;
+        }
+        Map.Entry<ZonedDateTime, MemoryDocument> entry = versions.floorEntry(snapshot);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * @return the version of the document that is current at the snapshot, or null if it does not exist or is deleted.
+     */
+    MemoryDocument live(String id, ZonedDateTime snapshot) {
+        MemoryDocument version = version(id, snapshot);
+        return version == null || version.deleted() ? null : version;
+    }
+
+    NavigableSet<ZonedDateTime> timestamps(String id) {
+        ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> versions = versionsById.get(id);
+        return versions == null ? Collections.emptyNavigableSet() : versions.navigableKeySet();
+    }
+
+    Iterable<MemoryDocument> versions(String id) {
+        ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> versions = versionsById.get(id);
+        return versions == null ? List.of() : versions.values();
+    }
+
+    boolean anyVersion(String id, Predicate<MemoryDocument> predicate) {
+        for (MemoryDocument version : versions(id)) {
+            if (predicate.test(version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the removed version, or null if there was none.
+     */
+    MemoryDocument removeVersion(String id, ZonedDateTime timestamp) {
+        ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> versions = versionsById.get(id);
+        if (versions == null) {
+            return null;
+        }
+        MemoryDocument removed = versions.remove(timestamp);
+        if (versions.isEmpty()) {
+            versionsById.remove(id, versions);
+        }
+        if (removed != null) {
+            unindexValues(removed);
+        }
+        return removed;
+    }
+
+    ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> removeAllVersions(String id) {
+        ConcurrentSkipListMap<ZonedDateTime, MemoryDocument> versions = versionsById.remove(id);
+        if (versions != null) {
+            for (MemoryDocument version : versions.values()) {
+                unindexValues(version);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Narrows a sorted set of keys to the range, in the order the range is to be read. Bounds are exclusive.
+     */
+    static <K> NavigableSet<K> slice(NavigableSet<K> keys, Range<K> range) {
+        NavigableSet<K> slice = keys;
+        if (range.hasAfter() && range.hasBefore()) {
+            if (compare(keys.comparator(), range.getAfter(), range.getBefore()) >= 0) {
+                return Collections.emptyNavigableSet();
+            }
+            slice = keys.subSet(range.getAfter(), false, range.getBefore(), false);
+        } else if (range.hasAfter()) {
+            slice = keys.tailSet(range.getAfter(), false);
+        } else if (range.hasBefore()) {
+            slice = keys.headSet(range.getBefore(), false);
+        }
+        return range.isBackward() ? slice.descendingSet() : slice;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> int compare(Comparator<? super K> comparator, K a, K b) {
+        return comparator == null ? ((Comparable<? super K>) a).compareTo(b) : comparator.compare(a, b);
+    }
+}
@@ -0,0 +1,352 @@
+package no.ssb.lds.core.persistence.memory;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.PersistenceException;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElement;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static no.ssb.lds.core.persistence.memory.MemoryTransaction.checkWritable;
+
+/**
+ * In-memory reference implementation of {@link RxJsonPersistence}, keyed by namespace, entity, id and timestamp on
+ * {@link ConcurrentSkipListMap}s. It is meant as a baseline that other providers can be compared with, and for
+ * running the kit without a database. Reads are lazy and honor backpressure. Transactions are not isolated and
+ * cannot be rolled back. Documents returned by reads share their json with the store and must not be modified.
+ */
+public class MemoryPersistence implements RxJsonPersistence {
+
+    final ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, MemoryEntity>> entitiesByNamespace = new ConcurrentSkipListMap<>();
+
+    MemoryEntity entity(String namespace, String entity) {
+        ConcurrentSkipListMap<String, MemoryEntity> entities = entitiesByNamespace.get(namespace);
+        return entities == null ? null : entities.get(entity);
+    }
+
+    MemoryEntity entityForWrite(String namespace, String entity) {
+        return entitiesByNamespace.computeIfAbsent(namespace, ns -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(entity, e -> new MemoryEntity(namespace, e));
+    }
+
+    @Override
+    public Transaction createTransaction(boolean readOnly) throws PersistenceException {
+        return new MemoryTransaction(readOnly);
+    }
+
+    @Override
+    public Maybe<JsonDocument> readDocument(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return Maybe.fromCallable(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            MemoryDocument document = entity == null ? null : entity.live(id, snapshot);
+            return document == null ? null : document.toJsonDocument();
+        });
+    }
+
+    @Override
+    public Flowable<JsonDocument> readDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, Range<String> range) {
+        return documents(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            if (entity == null) {
+                return Stream.empty();
+            }
+            return MemoryEntity.slice(entity.versionsById.navigableKeySet(), range).stream()
+                    .map(id -> entity.live(id, snapshot));
+        }, range);
+    }
+
+    @Override
+    public Flowable<JsonDocument> readDocumentVersions(Transaction tx, String ns, String entityName, String id, Range<ZonedDateTime> range) {
+        return documents(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            if (entity == null) {
+                return Stream.empty();
+            }
+            Map<ZonedDateTime, MemoryDocument> versions = entity.versionsById.get(id);
+            if (versions == null) {
+                return Stream.empty();
+            }
+            return MemoryEntity.slice(entity.timestamps(id), range).stream().map(versions::get);
+        }, range);
+    }
+
+    @Override
+    public Flowable<JsonDocument> readLinkedDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id, JsonNavigationPath jsonNavigationPath, String targetEntityName, Range<String> range) {
+        return documents(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            MemoryDocument source = entity == null ? null : entity.live(id, snapshot);
+            MemoryEntity targetEntity = entity(ns, targetEntityName);
+            if (source == null || targetEntity == null) {
+                return Stream.empty();
+            }
+            TreeSet<String> targetIds = new TreeSet<>();
+            for (String link : source.links(jsonNavigationPath.serialize())) {
+                String[] target = MemoryDocument.parseLink(link);
+                if (target != null && target[0].equals(targetEntityName)) {
+                    targetIds.add(target[1]);
+                }
+            }
+            return MemoryEntity.slice(targetIds, range).stream()
+                    .map(targetId -> targetEntity.live(targetId, snapshot));
+        }, range);
+    }
+
+    @Override
+    public Flowable<JsonDocument> readSourceDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String targetEntityName, String targetId, JsonNavigationPath relationPath, String sourceEntityName, Range<String> range) {
+        return documents(() -> {
+            MemoryEntity targetEntity = entity(ns, targetEntityName);
+            MemoryEntity sourceEntity = entity(ns, sourceEntityName);
+            if (targetEntity == null || sourceEntity == null) {
+                return Stream.empty();
+            }
+            String path = relationPath.serialize();
+            String targetLink = MemoryDocument.link(targetEntityName, targetId);
+            return MemoryEntity.slice(targetEntity.incoming(targetId, new Relation(sourceEntityName, path)), range).stream()
+                    .map(sourceId -> sourceEntity.live(sourceId, snapshot))
+                    .filter(source -> source != null && source.links(path).contains(targetLink));
+        }, range);
+    }
+
+    @Override
+    public Flowable<JsonDocument> findDocument(Transaction tx, ZonedDateTime snapshot, String namespace, String entityName, JsonNavigationPath path, String value, Range<String> range) {
+        return documents(() -> {
+            MemoryEntity entity = entity(namespace, entityName);
+            if (entity == null) {
+                return Stream.empty();
+            }
+            String serializedPath = path.serialize();
+            return MemoryEntity.slice(entity.idsWithValue(serializedPath, value), range).stream()
+                    .map(id -> entity.live(id, snapshot))
+                    .filter(document -> document != null && document.hasValue(serializedPath, value));
+        }, range);
+    }
+
+    private static Flowable<JsonDocument> documents(Supplier<Stream<MemoryDocument>> documents, Range<?> range) {
+        Flowable<JsonDocument> flowable = Flowable.fromIterable(() -> documents.get()
+                .filter(Objects::nonNull)
+                .map(MemoryDocument::toJsonDocument)
+                .iterator());
+        return range.isLimited() ? flowable.take(range.getLimit()) : flowable;
+    }
+
+    @Override
+    public Single<Boolean> hasPrevious(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return Single.fromCallable(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            return entity != null && entity.versionsById.navigableKeySet().headSet(id, false).descendingSet().stream()
+                    .anyMatch(previousId -> entity.live(previousId, snapshot) != null);
+        });
+    }
+
+    @Override
+    public Single<Boolean> hasNext(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return Single.fromCallable(() -> {
+            MemoryEntity entity = entity(ns, entityName);
+            return entity != null && entity.versionsById.navigableKeySet().tailSet(id, false).stream()
+                    .anyMatch(nextId -> entity.live(nextId, snapshot) != null);
+        });
+    }
+
+    @Override
+    public Completable createOrOverwrite(Transaction tx, JsonDocument document, Specification specification) {
+        return Completable.fromAction(() -> write(tx, document, specification));
+    }
+
+    @Override
+    public Completable createOrOverwrite(Transaction tx, Flowable<JsonDocument> documentFlowable, Specification specification) {
+        return documentFlowable.doOnNext(document -> write(tx, document, specification)).ignoreElements();
+    }
+
+    private void write(Transaction tx, JsonDocument document, Specification specification) {
+        checkWritable(tx);
+        DocumentKey key = document.key();
+        SpecificationElement managedElement = specification.getRootElement().getProperties().get(key.entity());
+        MemoryDocument memoryDocument = MemoryDocument.of(document, managedElement);
+        MemoryDocument overwritten = entityForWrite(key.namespace(), key.entity()).put(memoryDocument);
+        for (Map.Entry<String, List<String>> entry : memoryDocument.linksByPath.entrySet()) {
+            Relation relation = new Relation(key.entity(), entry.getKey());
+            for (String link : entry.getValue()) {
+                String[] target = MemoryDocument.parseLink(link);
+                if (target != null) {
+                    entityForWrite(key.namespace(), target[0]).addIncoming(target[1], relation, key.id());
+                }
+            }
+        }
+        if (overwritten != null) {
+            removeOutgoing(key.namespace(), List.of(overwritten));
+        }
+    }
+
+    @Override
+    public Completable deleteDocument(Transaction tx, String ns, String entityName, String id, ZonedDateTime version, PersistenceDeletePolicy policy) {
+        return Completable.fromAction(() -> {
+            checkWritable(tx);
+            applyDeletePolicy(ns, entityName, id, policy, new HashSet<>());
+            MemoryEntity entity = entity(ns, entityName);
+            MemoryDocument removed = entity == null ? null : entity.removeVersion(id, version);
+            if (removed != null) {
+                removeOutgoing(ns, List.of(removed));
+            }
+        });
+    }
+
+    @Override
+    public Completable deleteAllDocumentVersions(Transaction tx, String ns, String entity, String id, PersistenceDeletePolicy policy) {
+        return Completable.fromAction(() -> {
+            checkWritable(tx);
+            deleteAllVersions(ns, entity, id, policy, new HashSet<>());
+        });
+    }
+
+    private void deleteAllVersions(String ns, String entityName, String id, PersistenceDeletePolicy policy, Set<String> visited) {
+        if (!visited.add(MemoryDocument.link(entityName, id))) {
+            return;
+        }
+        applyDeletePolicy(ns, entityName, id, policy, visited);
+        MemoryEntity entity = entity(ns, entityName);
+        if (entity == null) {
+            return;
+        }
+        Map<ZonedDateTime, MemoryDocument> versions = entity.removeAllVersions(id);
+        if (versions != null) {
+            removeOutgoing(ns, versions.values());
+        }
+    }
+
+    @Override
+    public Completable deleteAllEntities(Transaction tx, String namespace, String entity, Specification specification) {
+        return Completable.fromAction(() -> {
+            checkWritable(tx);
+            MemoryEntity memoryEntity = entity(namespace, entity);
+            if (memoryEntity == null) {
+                return;
+            }
+            for (String id : memoryEntity.versionsById.keySet()) {
+                Map<ZonedDateTime, MemoryDocument> versions = memoryEntity.removeAllVersions(id);
+                if (versions != null) {
+                    removeOutgoing(namespace, versions.values());
+                }
+            }
+            memoryEntity.clearValueIndex();
+        });
+    }
+
+    @Override
+    public Completable markDocumentDeleted(Transaction transaction, String ns, String entityName, String id, ZonedDateTime version, PersistenceDeletePolicy policy) {
+        return Completable.fromAction(() -> {
+            checkWritable(transaction);
+            markDeleted(ns, entityName, id, version, policy, new HashSet<>());
+        });
+    }
+
+    private void markDeleted(String ns, String entityName, String id, ZonedDateTime version, PersistenceDeletePolicy policy, Set<String> visited) {
+        if (!visited.add(MemoryDocument.link(entityName, id))) {
+            return;
+        }
+        if (policy == PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS) {
+            failIfIncomingLinks(ns, entityName, id);
+        } else if (policy == PersistenceDeletePolicy.CASCADE_DELETE_ALL_INCOMING_LINKS_AND_NODES) {
+            for (String source : incomingLinks(ns, entityName, id)) {
+                String[] sourceKey = MemoryDocument.parseLink(source);
+                markDeleted(ns, sourceKey[0], sourceKey[1], version, policy, visited);
+            }
+        }
+        MemoryDocument overwritten = entityForWrite(ns, entityName).put(MemoryDocument.deleteMarker(new DocumentKey(ns, entityName, id, version)));
+        if (overwritten != null) {
+            removeOutgoing(ns, List.of(overwritten));
+        }
+    }
+
+    private void applyDeletePolicy(String ns, String entityName, String id, PersistenceDeletePolicy policy, Set<String> visited) {
+        if (policy == PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS) {
+            failIfIncomingLinks(ns, entityName, id);
+        } else if (policy == PersistenceDeletePolicy.CASCADE_DELETE_ALL_INCOMING_LINKS_AND_NODES) {
+            for (String source : incomingLinks(ns, entityName, id)) {
+                String[] sourceKey = MemoryDocument.parseLink(source);
+                deleteAllVersions(ns, sourceKey[0], sourceKey[1], policy, visited);
+            }
+        }
+    }
+
+    private void failIfIncomingLinks(String ns, String entityName, String id) {
+        Set<String> sources = incomingLinks(ns, entityName, id);
+        if (!sources.isEmpty()) {
+            throw new PersistenceException(format("Unable to delete /%s/%s, it has incoming links from: %s", entityName, id, sources));
+        }
+    }
+
+    /**
+     * @return links to the documents that link to the target in any of their versions.
+     */
+    private Set<String> incomingLinks(String ns, String targetEntityName, String targetId) {
+        Set<String> sources = new TreeSet<>();
+        MemoryEntity targetEntity = entity(ns, targetEntityName);
+        if (targetEntity == null) {
+            return sources;
+        }
+        String targetLink = MemoryDocument.link(targetEntityName, targetId);
+        targetEntity.incoming(targetId).forEach((relation, sourceIds) -> {
+            MemoryEntity sourceEntity = entity(ns, relation.sourceEntity);
+            if (sourceEntity == null) {
+                return;
+            }
+            for (String sourceId : sourceIds) {
+                for (MemoryDocument version : sourceEntity.versions(sourceId)) {
+                    if (version.links(relation.path).contains(targetLink)) {
+                        sources.add(MemoryDocument.link(relation.sourceEntity, sourceId));
+                        break;
+                    }
+                }
+            }
+        });
+        return sources;
+    }
+
+    /**
+     * Removes the incoming links of versions that are no longer stored, except where another stored version of the
+     * same document has the same link.
+     */
+    private void removeOutgoing(String ns, Iterable<MemoryDocument> versions) {
+        for (MemoryDocument version : versions) {
+            MemoryEntity sourceEntity = entity(ns, version.key.entity());
+            String sourceId = version.key.id();
+            for (Map.Entry<String, List<String>> entry : version.linksByPath.entrySet()) {
+                String path = entry.getKey();
+                Relation relation = new Relation(version.key.entity(), path);
+                for (String link : entry.getValue()) {
+                    String[] target = MemoryDocument.parseLink(link);
+                    MemoryEntity targetEntity = target == null ? null : entity(ns, target[0]);
+                    if (targetEntity != null) {
+                        targetEntity.removeIncoming(target[1], relation, sourceId, () -> sourceEntity != null
+                                && sourceEntity.anyVersion(sourceId, stored -> stored.links(path).contains(link)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws PersistenceException {
+        entitiesByNamespace.clear();
+    }
+}
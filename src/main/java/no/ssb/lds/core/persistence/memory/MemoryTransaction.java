@@ -0,0 +1,40 @@
+package no.ssb.lds.core.persistence.memory;
+
+import no.ssb.lds.api.persistence.PersistenceException;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.TransactionStatistics;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Changes made through the in-memory persistence are visible as soon as they are made, so commit and cancel only
+ * complete the transaction. Cancel does not roll back.
+ */
+class MemoryTransaction implements Transaction {
+
+    private final boolean readOnly;
+
+    MemoryTransaction(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    static void checkWritable(Transaction transaction) {
+        if (transaction instanceof MemoryTransaction && ((MemoryTransaction) transaction).isReadOnly()) {
+            throw new PersistenceException("Write attempted in read-only transaction");
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatistics> commit() {
+        return CompletableFuture.completedFuture(new TransactionStatistics());
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatistics> cancel() {
+        return CompletableFuture.completedFuture(new TransactionStatistics());
+    }
+}
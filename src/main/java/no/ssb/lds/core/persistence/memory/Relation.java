@@ -0,0 +1,36 @@
+package no.ssb.lds.core.persistence.memory;
+
+import java.util.Objects;
+
+/**
+ * Identifies the links held by the documents of a source entity at a given path, e.g. Person at
+ * $.history.previousAddresses[].
+ */
+final class Relation {
+
+    final String sourceEntity;
+    final String path;
+
+    Relation(String sourceEntity, String path) {
+        this.sourceEntity = sourceEntity;
+        this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Relation relation = (Relation) o;
+        return sourceEntity.equals(relation.sourceEntity) && path.equals(relation.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceEntity, path);
+    }
+
+    @Override
+    public String toString() {
+        return sourceEntity + " " + path;
+    }
+}
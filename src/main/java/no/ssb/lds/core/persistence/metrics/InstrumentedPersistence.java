@@ -0,0 +1,249 @@
+package no.ssb.lds.core.persistence.metrics;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.PersistenceException;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+
+import java.time.ZonedDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decorates any {@link RxJsonPersistence} and records, per method, the number of calls, the latency from
+ * subscription until the result completes or fails, the time-to-first-item of flowables, the number of documents
+ * read or written, errors and cancellations. Results are passed through unchanged, including backpressure and
+ * cancellation. The recorded metrics are available through {@link #metrics()}.
+ */
+public class InstrumentedPersistence implements RxJsonPersistence {
+
+    private final RxJsonPersistence delegate;
+    private final PersistenceMetrics metrics;
+
+    public InstrumentedPersistence(RxJsonPersistence delegate) {
+        this(delegate, new PersistenceMetrics());
+    }
+
+    public InstrumentedPersistence(RxJsonPersistence delegate, PersistenceMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the persistence itself if it is already instrumented, otherwise an instrumented decorator.
+     */
+    public static InstrumentedPersistence instrument(RxJsonPersistence persistence) {
+        if (persistence instanceof InstrumentedPersistence) {
+            return (InstrumentedPersistence) persistence;
+        }
+        return new InstrumentedPersistence(persistence);
+    }
+
+    public RxJsonPersistence delegate() {
+        return delegate;
+    }
+
+    public PersistenceMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public Transaction createTransaction(boolean readOnly) throws PersistenceException {
+        PersistenceMetrics.Recorder recorder = metrics.recorder("createTransaction");
+        recorder.call();
+        long start = System.nanoTime();
+        try {
+            Transaction transaction = delegate.createTransaction(readOnly);
+            recorder.complete(System.nanoTime() - start);
+            return transaction;
+        } catch (RuntimeException e) {
+            recorder.error(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Maybe<JsonDocument> readDocument(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return maybe("readDocument", () -> delegate.readDocument(tx, snapshot, ns, entityName, id));
+    }
+
+    @Override
+    public Flowable<JsonDocument> readDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, Range<String> range) {
+        return flowable("readDocuments", () -> delegate.readDocuments(tx, snapshot, ns, entityName, range));
+    }
+
+    @Override
+    public Flowable<JsonDocument> readDocumentVersions(Transaction tx, String ns, String entityName, String id, Range<ZonedDateTime> range) {
+        return flowable("readDocumentVersions", () -> delegate.readDocumentVersions(tx, ns, entityName, id, range));
+    }
+
+    @Override
+    public Flowable<JsonDocument> readLinkedDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id, JsonNavigationPath jsonNavigationPath, String targetEntityName, Range<String> range) {
+        return flowable("readLinkedDocuments", () -> delegate.readLinkedDocuments(tx, snapshot, ns, entityName, id, jsonNavigationPath, targetEntityName, range));
+    }
+
+    @Override
+    public Flowable<JsonDocument> readSourceDocuments(Transaction tx, ZonedDateTime snapshot, String ns, String targetEntityName, String targetId, JsonNavigationPath relationPath, String sourceEntityName, Range<String> range) {
+        return flowable("readSourceDocuments", () -> delegate.readSourceDocuments(tx, snapshot, ns, targetEntityName, targetId, relationPath, sourceEntityName, range));
+    }
+
+    @Override
+    public Completable createOrOverwrite(Transaction tx, JsonDocument document, Specification specification) {
+        return completable("createOrOverwrite", recorder ->
+                delegate.createOrOverwrite(tx, document, specification).doOnSubscribe(disposable -> recorder.written()));
+    }
+
+    @Override
+    public Completable createOrOverwrite(Transaction tx, Flowable<JsonDocument> documentFlowable, Specification specification) {
+        return completable("createOrOverwriteFlowable", recorder ->
+                delegate.createOrOverwrite(tx, documentFlowable.doOnNext(document -> recorder.written()), specification));
+    }
+
+    @Override
+    public Completable deleteDocument(Transaction tx, String ns, String entityName, String id, ZonedDateTime version, PersistenceDeletePolicy policy) {
+        return completable("deleteDocument", recorder -> delegate.deleteDocument(tx, ns, entityName, id, version, policy));
+    }
+
+    @Override
+    public Completable deleteAllDocumentVersions(Transaction tx, String ns, String entity, String id, PersistenceDeletePolicy policy) {
+        return completable("deleteAllDocumentVersions", recorder -> delegate.deleteAllDocumentVersions(tx, ns, entity, id, policy));
+    }
+
+    @Override
+    public Completable deleteAllEntities(Transaction tx, String namespace, String entity, Specification specification) {
+        return completable("deleteAllEntities", recorder -> delegate.deleteAllEntities(tx, namespace, entity, specification));
+    }
+
+    @Override
+    public Completable markDocumentDeleted(Transaction transaction, String ns, String entityName, String id, ZonedDateTime version, PersistenceDeletePolicy policy) {
+        return completable("markDocumentDeleted", recorder -> delegate.markDocumentDeleted(transaction, ns, entityName, id, version, policy));
+    }
+
+    @Override
+    public Single<Boolean> hasPrevious(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return single("hasPrevious", () -> delegate.hasPrevious(tx, snapshot, ns, entityName, id));
+    }
+
+    @Override
+    public Single<Boolean> hasNext(Transaction tx, ZonedDateTime snapshot, String ns, String entityName, String id) {
+        return single("hasNext", () -> delegate.hasNext(tx, snapshot, ns, entityName, id));
+    }
+
+    @Override
+    public Flowable<JsonDocument> findDocument(Transaction tx, ZonedDateTime snapshot, String namespace, String entityName, JsonNavigationPath path, String value, Range<String> range) {
+        return flowable("findDocument", () -> delegate.findDocument(tx, snapshot, namespace, entityName, path, value, range));
+    }
+
+    @Override
+    public void close() throws PersistenceException {
+        metrics.recorder("close").call();
+        delegate.close();
+    }
+
+    private <T> Flowable<T> flowable(String method, Supplier<Flowable<T>> call) {
+        PersistenceMetrics.Recorder recorder = metrics.recorder(method);
+        Flowable<T> source = call(recorder, call);
+        return Flowable.defer(() -> {
+            Timing timing = new Timing();
+            return source
+                    .doOnSubscribe(subscription -> timing.start())
+                    .doOnNext(item -> recorder.item(timing.elapsed(), timing.first()))
+                    .doOnComplete(() -> recorder.complete(timing.elapsed()))
+                    .doOnError(e -> recorder.error(timing.elapsed()))
+                    .doOnCancel(recorder::cancel);
+        });
+    }
+
+    private <T> Maybe<T> maybe(String method, Supplier<Maybe<T>> call) {
+        PersistenceMetrics.Recorder recorder = metrics.recorder(method);
+        Maybe<T> source = call(recorder, call);
+        return Maybe.defer(() -> {
+            Timing timing = new Timing();
+            return source
+                    .doOnSubscribe(disposable -> timing.start())
+                    .doOnSuccess(item -> {
+                        long elapsed = timing.elapsed();
+                        recorder.item(elapsed, timing.first());
+                        recorder.complete(elapsed);
+                    })
+                    .doOnComplete(() -> recorder.complete(timing.elapsed()))
+                    .doOnError(e -> recorder.error(timing.elapsed()))
+                    .doOnDispose(recorder::cancel);
+        });
+    }
+
+    private <T> Single<T> single(String method, Supplier<Single<T>> call) {
+        PersistenceMetrics.Recorder recorder = metrics.recorder(method);
+        Single<T> source = call(recorder, call);
+        return Single.defer(() -> {
+            Timing timing = new Timing();
+            return source
+                    .doOnSubscribe(disposable -> timing.start())
+                    .doOnSuccess(item -> recorder.complete(timing.elapsed()))
+                    .doOnError(e -> recorder.error(timing.elapsed()))
+                    .doOnDispose(recorder::cancel);
+        });
+    }
+
+    private Completable completable(String method, Function<PersistenceMetrics.Recorder, Completable> call) {
+        PersistenceMetrics.Recorder recorder = metrics.recorder(method);
+        Completable source = call(recorder, () -> call.apply(recorder));
+        return Completable.defer(() -> {
+            Timing timing = new Timing();
+            return source
+                    .doOnSubscribe(disposable -> timing.start())
+                    .doOnComplete(() -> recorder.complete(timing.elapsed()))
+                    .doOnError(e -> recorder.error(timing.elapsed()))
+                    .doOnDispose(recorder::cancel);
+        });
+    }
+
+    /**
+     * Counts the call and records providers failing before returning a result as errors.
+     */
+    private static <R> R call(PersistenceMetrics.Recorder recorder, Supplier<R> call) {
+        recorder.call();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            recorder.error(0);
+            throw e;
+        }
+    }
+
+    /**
+     * The timing of a single subscription.
+     */
+    private static class Timing {
+
+        long start;
+        boolean emitted;
+
+        void start() {
+            start = System.nanoTime();
+        }
+
+        long elapsed() {
+            return System.nanoTime() - start;
+        }
+
+        /**
+         * @return true the first time it is called.
+         */
+        boolean first() {
+            if (emitted) {
+                return false;
+            }
+            emitted = true;
+            return true;
+        }
+    }
+}
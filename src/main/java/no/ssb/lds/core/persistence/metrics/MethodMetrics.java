@@ -0,0 +1,79 @@
+package no.ssb.lds.core.persistence.metrics;
+
+/**
+ * A snapshot of the metrics of one persistence method. Latencies are measured from subscription until the result
+ * completes or fails, time-to-first-item from subscription until the first document is emitted.
+ */
+public class MethodMetrics {
+
+    private final String method;
+    private final long calls;
+    private final long completions;
+    private final long errors;
+    private final long cancellations;
+    private final long items;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+    private final long firstItems;
+    private final long totalTimeToFirstItemNanos;
+
+    MethodMetrics(String method, long calls, long completions, long errors, long cancellations, long items,
+                  long totalLatencyNanos, long maxLatencyNanos, long firstItems, long totalTimeToFirstItemNanos) {
+        this.method = method;
+        this.calls = calls;
+        this.completions = completions;
+        this.errors = errors;
+        this.cancellations = cancellations;
+        this.items = items;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.firstItems = firstItems;
+        this.totalTimeToFirstItemNanos = totalTimeToFirstItemNanos;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public long calls() {
+        return calls;
+    }
+
+    public long completions() {
+        return completions;
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    public long cancellations() {
+        return cancellations;
+    }
+
+    /**
+     * @return the documents emitted by reads, or passed to writes.
+     */
+    public long items() {
+        return items;
+    }
+
+    public double meanLatencyMicros() {
+        long finished = completions + errors;
+        return finished == 0 ? 0 : totalLatencyNanos / 1000.0 / finished;
+    }
+
+    public double maxLatencyMicros() {
+        return maxLatencyNanos / 1000.0;
+    }
+
+    public double meanTimeToFirstItemMicros() {
+        return firstItems == 0 ? 0 : totalTimeToFirstItemNanos / 1000.0 / firstItems;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %8d %8d %8d %10d %14.1f %14.1f %14.1f",
+                method, calls, errors, cancellations, items, meanLatencyMicros(), maxLatencyMicros(), meanTimeToFirstItemMicros());
+    }
+}
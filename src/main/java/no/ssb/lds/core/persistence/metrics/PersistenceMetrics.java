@@ -0,0 +1,105 @@
+package no.ssb.lds.core.persistence.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded by an {@link InstrumentedPersistence}, per method.
+ */
+public class PersistenceMetrics {
+
+    private final ConcurrentMap<String, Recorder> recorderByMethod = new ConcurrentHashMap<>();
+
+    Recorder recorder(String method) {
+        return recorderByMethod.computeIfAbsent(method, Recorder::new);
+    }
+
+    /**
+     * @return the metrics of every method called so far, sorted by method name.
+     */
+    public Map<String, MethodMetrics> snapshot() {
+        Map<String, MethodMetrics> snapshot = new TreeMap<>();
+        for (Recorder recorder : recorderByMethod.values()) {
+            snapshot.put(recorder.method, recorder.snapshot());
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        recorderByMethod.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %8s %8s %8s %10s %14s %14s %14s%n",
+                "method", "calls", "errors", "cancels", "items", "mean us", "max us", "first item us"));
+        for (MethodMetrics metrics : snapshot().values()) {
+            sb.append(metrics).append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    static class Recorder {
+
+        final String method;
+        final LongAdder calls = new LongAdder();
+        final LongAdder completions = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder cancellations = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder totalLatencyNanos = new LongAdder();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+        final LongAdder firstItems = new LongAdder();
+        final LongAdder totalTimeToFirstItemNanos = new LongAdder();
+
+        Recorder(String method) {
+            this.method = method;
+        }
+
+        void call() {
+            calls.increment();
+        }
+
+        void item(long timeToItemNanos, boolean first) {
+            items.increment();
+            if (first) {
+                firstItems.increment();
+                totalTimeToFirstItemNanos.add(timeToItemNanos);
+            }
+        }
+
+        void written() {
+            items.increment();
+        }
+
+        void complete(long latencyNanos) {
+            completions.increment();
+            latency(latencyNanos);
+        }
+
+        void error(long latencyNanos) {
+            errors.increment();
+            latency(latencyNanos);
+        }
+
+        void cancel() {
+            cancellations.increment();
+        }
+
+        private void latency(long latencyNanos) {
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+
+        MethodMetrics snapshot() {
+            return new MethodMetrics(method, calls.sum(), completions.sum(), errors.sum(), cancellations.sum(),
+                    items.sum(), totalLatencyNanos.sum(), maxLatencyNanos.get(), firstItems.sum(),
+                    totalTimeToFirstItemNanos.sum());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package no.ssb.lds.core.persistence.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElement;
+import no.ssb.lds.api.specification.SpecificationElementType;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+
+/**
+ * Generates synthetic documents for any {@link Specification}, e.g. one built with {@link SpecificationBuilder}.
+ * Documents are produced lazily, so data-sets far larger than the heap can be streamed into a provider. The content
+ * of every document version is derived from the seed, the entity, the document index and the version index only,
+ * so the same configuration always yields the same documents, in the same order, and any single document can be
+ * re-created without generating the others.
+ * <p>
+ * Document ids are the lower-cased entity name followed by the zero-padded document index, so ids sort in index
+ * order. REF elements link to documents of their ref types within the number of documents configured for each type.
+ * Arrays without an items element hold strings.
+ */
+public class DocumentGenerator {
+
+    static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private final Specification specification;
+    private final String namespace;
+    private final Map<String, Long> documentsByEntity = new LinkedHashMap<>();
+    private long seed = 1;
+    private long defaultDocuments = 100;
+    private int versions = 1;
+    private ZonedDateTime firstVersion = parse("2000-01-01T00:00:00.000Z");
+    private Duration versionInterval = Duration.ofDays(1);
+    private int refFanOut = 1;
+    private int arraySize = 3;
+    private int valueSize = 16;
+
+    public DocumentGenerator(Specification specification, String namespace) {
+        this.specification = specification;
+        this.namespace = namespace;
+    }
+
+    public DocumentGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the number of documents to generate of an entity, which is also the range of ids that links to the
+     * entity will point into.
+     */
+    public DocumentGenerator documents(String entity, long count) {
+        documentsByEntity.put(entity, count);
+        return this;
+    }
+
+    /**
+     * Sets the number of documents of entities not configured with {@link #documents(String, long)}.
+     */
+    public DocumentGenerator documents(long count) {
+        this.defaultDocuments = count;
+        return this;
+    }
+
+    /**
+     * Sets the number of versions of each document, the first at {@link #firstVersion(ZonedDateTime)} and
+     * the rest {@link #versionInterval(Duration)} apart.
+     */
+    public DocumentGenerator versions(int versions) {
+        this.versions = versions;
+        return this;
+    }
+
+    public DocumentGenerator firstVersion(ZonedDateTime firstVersion) {
+        this.firstVersion = firstVersion;
+        return this;
+    }
+
+    public DocumentGenerator versionInterval(Duration versionInterval) {
+        this.versionInterval = versionInterval;
+        return this;
+    }
+
+    /**
+     * Sets the number of links in each array of REF elements.
+     */
+    public DocumentGenerator refFanOut(int refFanOut) {
+        this.refFanOut = refFanOut;
+        return this;
+    }
+
+    /**
+     * Sets the number of items in each array of embedded elements.
+     */
+    public DocumentGenerator arraySize(int arraySize) {
+        this.arraySize = arraySize;
+        return this;
+    }
+
+    /**
+     * Sets the length of generated string values.
+     */
+    public DocumentGenerator valueSize(int valueSize) {
+        this.valueSize = valueSize;
+        return this;
+    }
+
+    public long documents(String entity) {
+        return documentsByEntity.getOrDefault(entity, defaultDocuments);
+    }
+
+    public int versions() {
+        return versions;
+    }
+
+    public String id(String entity, long index) {
+        return format("%s%010d", entity.toLowerCase(), index);
+    }
+
+    public ZonedDateTime version(int versionIndex) {
+        return firstVersion.plus(versionInterval.multipliedBy(versionIndex));
+    }
+
+    /**
+     * @return all versions of all documents of the entity, ordered by id and then by version.
+     */
+    public Flowable<JsonDocument> generate(String entity) {
+        SpecificationElement managedElement = managedElement(entity);
+        return Flowable.rangeLong(0, documents(entity))
+                .concatMapIterable(index -> {
+                    List<JsonDocument> documentVersions = new ArrayList<>(versions);
+                    for (int version = 0; version < versions; version++) {
+                        documentVersions.add(generate(managedElement, index, version));
+                    }
+                    return documentVersions;
+                });
+    }
+
+    /**
+     * @return all versions of all documents of every managed entity of the specification, one entity at a time.
+     */
+    public Flowable<JsonDocument> generateAll() {
+        return Flowable.fromIterable(specification.getManagedDomains())
+                .sorted()
+                .concatMap(this::generate);
+    }
+
+    /**
+     * @return the given version of a single document.
+     */
+    public JsonDocument generate(String entity, long index, int version) {
+        return generate(managedElement(entity), index, version);
+    }
+
+    private JsonDocument generate(SpecificationElement managedElement, long index, int version) {
+        String entity = managedElement.getName();
+        SplittableRandom random = new SplittableRandom(mix(seed, entity.hashCode(), index, version));
+        JsonNode json = object(managedElement, random);
+        return new JsonDocument(new DocumentKey(namespace, entity, id(entity, index), version(version)), json);
+    }
+
+    private SpecificationElement managedElement(String entity) {
+        SpecificationElement managedElement = specification.getRootElement().getProperties().get(entity);
+        if (managedElement == null) {
+            throw new IllegalArgumentException("Entity not in specification: " + entity);
+        }
+        return managedElement;
+    }
+
+    private ObjectNode object(SpecificationElement element, SplittableRandom random) {
+        ObjectNode object = mapper.createObjectNode();
+        for (SpecificationElement property : element.getProperties().values()) {
+            object.set(property.getName(), value(property, random));
+        }
+        return object;
+    }
+
+    private JsonNode value(SpecificationElement element, SplittableRandom random) {
+        Set<String> jsonTypes = element.getJsonTypes();
+        if (element.getSpecificationElementType() == SpecificationElementType.REF) {
+            if (jsonTypes.contains("array")) {
+                ArrayNode links = mapper.createArrayNode();
+                long offset = random.nextLong(Long.MAX_VALUE);
+                for (int i = 0; i < refFanOut; i++) {
+                    links.add(link(element, random, offset + i));
+                }
+                return links;
+            }
+            return mapper.getNodeFactory().textNode(link(element, random, random.nextLong(Long.MAX_VALUE)));
+        }
+        if (jsonTypes.contains("object")) {
+            return object(element, random);
+        }
+        if (jsonTypes.contains("array")) {
+            SpecificationElement items = element.getItems();
+            ArrayNode array = mapper.createArrayNode();
+            for (int i = 0; i < arraySize; i++) {
+                array.add(items == null ? mapper.getNodeFactory().textNode(string(random)) : value(items, random));
+            }
+            return array;
+        }
+        if (jsonTypes.contains("boolean")) {
+            return mapper.getNodeFactory().booleanNode(random.nextBoolean());
+        }
+        if (jsonTypes.contains("integer")) {
+            return mapper.getNodeFactory().numberNode(random.nextInt(1_000_000));
+        }
+        if (jsonTypes.contains("number")) {
+            return mapper.getNodeFactory().numberNode(random.nextInt(1_000_000_000) / 1000.0);
+        }
+        return mapper.getNodeFactory().textNode(string(random));
+    }
+
+    /**
+     * Links to a random ref type. Consecutive positions give distinct targets as long as there are enough
+     * documents of the type.
+     */
+    private String link(SpecificationElement element, SplittableRandom random, long position) {
+        List<String> refTypes = new ArrayList<>(element.getRefTypes());
+        refTypes.sort(null);
+        String targetEntity = refTypes.get(random.nextInt(refTypes.size()));
+        long targetDocuments = Math.max(1, documents(targetEntity));
+        return "/" + targetEntity + "/" + id(targetEntity, Math.floorMod(position, targetDocuments));
+    }
+
+    private String string(SplittableRandom random) {
+        char[] value = new char[valueSize];
+        for (int i = 0; i < valueSize; i++) {
+            value[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(value);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads the document coordinates over the seed space.
+     */
+    static long mix(long seed, long... values) {
+        long z = seed;
+        for (long value : values) {
+            z += 0x9E3779B97F4A7C15L + value;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z = z ^ (z >>> 31);
+        }
+        return z;
+    }
+}
@@ -0,0 +1,91 @@
+package no.ssb.lds.core.persistence.test;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+
+import java.util.List;
+
+/**
+ * Writes a stream of documents in batches, each batch with the {@link Flowable} overload of
+ * {@link RxJsonPersistence#createOrOverwrite(Transaction, Flowable, Specification)} in its own transaction. At most
+ * {@link #concurrency(int)} batches are written at the same time, and the pipeline only requests documents from
+ * the source as batches complete, so memory use is bounded by batch size times concurrency whatever the size of
+ * the stream.
+ */
+public class IngestPipeline {
+
+    private final RxJsonPersistence persistence;
+    private final Specification specification;
+    private int batchSize = 1000;
+    private int concurrency = 1;
+    private Scheduler scheduler = Schedulers.io();
+
+    public IngestPipeline(RxJsonPersistence persistence, Specification specification) {
+        this.persistence = persistence;
+        this.specification = specification;
+    }
+
+    /**
+     * Sets the number of documents written per transaction, defaults to 1000.
+     */
+    public IngestPipeline batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of batches in flight, defaults to 1.
+     */
+    public IngestPipeline concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Sets the scheduler the batches are written on, defaults to {@link Schedulers#io()}, as most providers block
+     * while writing.
+     */
+    public IngestPipeline scheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return the number of documents written, once every batch is committed. Fails with the first failing batch,
+     * batches already committed stay written.
+     */
+    public Single<Long> ingest(Flowable<JsonDocument> documents) {
+        return documents.buffer(batchSize)
+                .flatMapSingle(batch -> write(batch).toSingleDefault((long) batch.size()), false, concurrency)
+                .reduce(0L, Long::sum);
+    }
+
+    Completable write(List<JsonDocument> batch) {
+        return Completable.using(
+                () -> persistence.createTransaction(false),
+                transaction -> persistence.createOrOverwrite(transaction, Flowable.fromIterable(batch), specification),
+                Transaction::close
+        ).subscribeOn(scheduler);
+    }
+}
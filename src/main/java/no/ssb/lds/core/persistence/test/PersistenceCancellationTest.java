@@ -0,0 +1,202 @@
+package no.ssb.lds.core.persistence.test;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.metrics.InstrumentedPersistence;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that providers stop fetching when a subscription to a large read is cancelled after the first few
+ * documents, and that cancelled reads release their resources while the transaction is still open.
+ * <p>
+ * Emissions are counted between the provider and the cancelling operator, so documents the provider keeps pushing
+ * after the cancellation are seen. The downstream requests an unbounded number of documents, so the provider is
+ * only stopped by the cancellation. The tolerated number of documents emitted after the cancellation and the time
+ * until emission stops are set with the system properties lds.cancellation.maxExtraDocuments (defaults to 256) and
+ * lds.cancellation.maxQuiescenceMillis (defaults to 1000).
+ * <p>
+ * Subclasses assign the persistence in their constructor or in a BeforeClass method. The data-set is written before
+ * the first test rather than in a BeforeClass method of this class, as TestNG runs those before the ones of the
+ * subclass.
+ */
+public abstract class PersistenceCancellationTest {
+
+    static final int DOCUMENTS = 5000;
+    static final int TAKE = 10;
+    static final int CANCELLED_READS = 500;
+    static final long SETTLE_MILLIS = 200;
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusDays(1);
+    static final JsonNavigationPath STATE = JsonNavigationPath.from("$.state");
+
+    protected final Specification specification;
+    protected final String namespace;
+    protected RxJsonPersistence persistence;
+
+    private final SuiteMetrics metrics = new SuiteMetrics();
+    private boolean populated;
+
+    protected PersistenceCancellationTest(String namespace) {
+        this.namespace = namespace;
+        this.specification = PersonAddressFixtures.specification();
+    }
+
+    /**
+     * @return the persistence assigned by the subclass, through an {@link InstrumentedPersistence} when the system
+     * property lds.metrics is true.
+     */
+    protected RxJsonPersistence persistence() {
+        return metrics.persistence(persistence);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void reportMetrics() {
+        metrics.report(getClass());
+    }
+
+    @BeforeMethod
+    public synchronized void populate() {
+        if (populated) {
+            return;
+        }
+        deleteAllEntities();
+        for (int first = 0; first < DOCUMENTS; first += 500) {
+            try (Transaction tx = persistence().createTransaction(false)) {
+                persistence().createOrOverwrite(tx, Flowable.range(first, 500)
+                        .map(i -> new JsonDocument(new DocumentKey(namespace, "Address", format("address%05d", i), VERSION),
+                                PersonAddressFixtures.createAddress("City " + i, "Cancel", "Country"))), specification).blockingAwait();
+            }
+        }
+        populated = true;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (populated) {
+            deleteAllEntities();
+            populated = false;
+        }
+    }
+
+    void deleteAllEntities() {
+        try (Transaction tx = persistence().createTransaction(false)) {
+            for (String entity : specification.getManagedDomains()) {
+                persistence().deleteAllEntities(tx, namespace, entity, specification).blockingAwait();
+            }
+        }
+    }
+
+    /**
+     * Called after a series of cancelled reads while their transaction is still open. Providers override this to
+     * check that cancelled reads have closed their cursors and returned their connections, e.g. by inspecting
+     * the connection pool.
+     */
+    protected void assertResourcesReleased(Transaction transaction) {
+    }
+
+    @Test
+    public void thatCancelledReadDocumentsStopsEmitting() {
+        assertStopsAfterCancel(tx -> persistence().readDocuments(tx, SNAPSHOT, namespace, "Address", Range.unbounded()));
+    }
+
+    @Test
+    public void thatCancelledFindDocumentStopsEmitting() {
+        assertStopsAfterCancel(tx -> persistence().findDocument(tx, SNAPSHOT, namespace, "Address", STATE, "Cancel", Range.unbounded()));
+    }
+
+    @Test
+    public void thatCancelledReadsReleaseResourcesBeforeTransactionClose() {
+        try (Transaction tx = persistence().createTransaction(true)) {
+            for (int i = 0; i < CANCELLED_READS; i++) {
+                assertThat(persistence().readDocuments(tx, SNAPSHOT, namespace, "Address", Range.unbounded())
+                        .take(TAKE).toList().blockingGet()).hasSize(TAKE);
+                assertThat(persistence().findDocument(tx, SNAPSHOT, namespace, "Address", STATE, "Cancel", Range.unbounded())
+                        .take(TAKE).toList().blockingGet()).hasSize(TAKE);
+            }
+
+            assertResourcesReleased(tx);
+
+            assertThat(persistence().readDocuments(tx, SNAPSHOT, namespace, "Address", Range.unbounded()).count().blockingGet())
+                    .as("documents read after %d cancelled reads in the same transaction", CANCELLED_READS * 2)
+                    .isEqualTo(DOCUMENTS);
+        }
+    }
+
+    void assertStopsAfterCancel(Function<Transaction, Flowable<JsonDocument>> read) {
+        long maxExtraDocuments = Long.getLong("lds.cancellation.maxExtraDocuments", 256);
+        long maxQuiescenceMillis = Long.getLong("lds.cancellation.maxQuiescenceMillis", 1000);
+        try (Transaction tx = persistence().createTransaction(true)) {
+            EmissionCounter counter = new EmissionCounter();
+            List<JsonDocument> taken = counter.count(read.apply(tx)).take(TAKE).toList().blockingGet();
+            assertThat(taken).hasSize(TAKE);
+            assertThat(counter.cancelledAt.get()).as("cancelled").isNotZero();
+
+            long quiescenceNanos = counter.awaitQuiescence();
+            assertThat(counter.items.get() - TAKE)
+                    .as("documents emitted after cancelling a read of %d documents", DOCUMENTS)
+                    .isLessThanOrEqualTo(maxExtraDocuments);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(quiescenceNanos))
+                    .as("milliseconds from cancellation until the last emission")
+                    .isLessThanOrEqualTo(maxQuiescenceMillis);
+
+            assertResourcesReleased(tx);
+        }
+    }
+
+    /**
+     * Counts the documents emitted by a flowable and records when it was cancelled and when it last emitted.
+     */
+    static class EmissionCounter {
+
+        final AtomicLong items = new AtomicLong();
+        final AtomicLong cancelledAt = new AtomicLong();
+        final AtomicLong lastEmissionAt = new AtomicLong();
+
+        <T> Flowable<T> count(Flowable<T> flowable) {
+            return flowable
+                    .doOnNext(item -> {
+                        items.incrementAndGet();
+                        lastEmissionAt.set(System.nanoTime());
+                    })
+                    .doOnCancel(() -> cancelledAt.set(System.nanoTime()));
+        }
+
+        /**
+         * Waits until no document has been emitted for a while, at most ten seconds.
+         *
+         * @return the nanoseconds from the cancellation until the last emission, zero if none came after it.
+         */
+        long awaitQuiescence() {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            long seen = -1;
+            while (seen != items.get() && System.nanoTime() < deadline) {
+                seen = items.get();
+                try {
+                    Thread.sleep(SETTLE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return Math.max(0, lastEmissionAt.get() - cancelledAt.get());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package no.ssb.lds.core.persistence.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.metrics.InstrumentedPersistence;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that providers stream results: reads must emit no more documents than requested, and draining a large
+ * result must not hold the whole result in memory.
+ * <p>
+ * The size of the large result is set with the system properties lds.streaming.megabytes (defaults to 256) and
+ * lds.streaming.documentKilobytes (defaults to 256). Providers that keep their data outside the test JVM should run
+ * with a multi-GB result.
+ * <p>
+ * Subclasses assign the persistence in their constructor or in a BeforeClass method. The data-set is written before
+ * the first test rather than in a BeforeClass method of this class, as TestNG runs those before the ones of the
+ * subclass.
+ */
+public abstract class PersistenceStreamingTest {
+
+    static final int ITEMS = 50;
+    static final long SETTLE_MILLIS = 100;
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final ZonedDateTime SNAPSHOT = VERSION.plusYears(1);
+
+    protected final Specification specification;
+    protected final String namespace;
+    protected RxJsonPersistence persistence;
+
+    private final SuiteMetrics metrics = new SuiteMetrics();
+    private boolean populated;
+
+    protected PersistenceStreamingTest(String namespace) {
+        this.namespace = namespace;
+        this.specification = PersonAddressFixtures.specification();
+    }
+
+    /**
+     * @return the persistence assigned by the subclass, through an {@link InstrumentedPersistence} when the system
+     * property lds.metrics is true.
+     */
+    protected RxJsonPersistence persistence() {
+        return metrics.persistence(persistence);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void reportMetrics() {
+        metrics.report(getClass());
+    }
+
+    /**
+     * Writes {@value #ITEMS} addresses, a person linking to all of them and an address with {@value #ITEMS}
+     * versions.
+     */
+    @BeforeMethod
+    public synchronized void populate() {
+        if (populated) {
+            return;
+        }
+        deleteAllEntities();
+        try (Transaction tx = persistence().createTransaction(false)) {
+            persistence().createOrOverwrite(tx, Flowable.range(0, ITEMS)
+                    .map(i -> document("Address", address(i), VERSION,
+                            PersonAddressFixtures.createAddress("City " + i, "Streaming", "Country"))), specification).blockingAwait();
+            List<String> links = Flowable.range(0, ITEMS).map(i -> "/Address/" + address(i)).toList().blockingGet();
+            persistence().createOrOverwrite(tx, document("Person", "linker", VERSION,
+                    PersonAddressFixtures.createPerson("Linker", "Person", links.get(0), links.get(0), links)), specification).blockingAwait();
+            persistence().createOrOverwrite(tx, Flowable.range(0, ITEMS)
+                    .map(i -> document("FunkyLongAddress", "versioned", VERSION.plusDays(i),
+                            PersonAddressFixtures.createAddress("City " + i, "Versioned", "Country"))), specification).blockingAwait();
+        }
+        populated = true;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public synchronized void deleteAll() {
+        if (populated) {
+            deleteAllEntities();
+            populated = false;
+        }
+    }
+
+    void deleteAllEntities() {
+        try (Transaction tx = persistence().createTransaction(false)) {
+            for (String entity : specification.getManagedDomains()) {
+                persistence().deleteAllEntities(tx, namespace, entity, specification).blockingAwait();
+            }
+        }
+    }
+
+    @Test
+    public void thatReadDocumentsRespectsRequests() {
+        assertRespectsRequests(tx -> persistence().readDocuments(tx, SNAPSHOT, namespace, "Address", Range.unbounded()));
+    }
+
+    @Test
+    public void thatReadDocumentVersionsRespectsRequests() {
+        assertRespectsRequests(tx -> persistence().readDocumentVersions(tx, namespace, "FunkyLongAddress", "versioned", Range.unbounded()));
+    }
+
+    @Test
+    public void thatFindDocumentRespectsRequests() {
+        assertRespectsRequests(tx -> persistence().findDocument(tx, SNAPSHOT, namespace, "Address",
+                JsonNavigationPath.from("$.state"), "Streaming", Range.unbounded()));
+    }
+
+    @Test
+    public void thatReadLinkedDocumentsRespectsRequests() {
+        assertRespectsRequests(tx -> persistence().readLinkedDocuments(tx, SNAPSHOT, namespace, "Person", "linker",
+                JsonNavigationPath.from("$.history.previousAddresses[]"), "Address", Range.unbounded()));
+    }
+
+    @Test
+    public void thatDrainingLargeResultKeepsHeapBounded() {
+        int documentKilobytes = Integer.getInteger("lds.streaming.documentKilobytes", 256);
+        long megabytes = Long.getLong("lds.streaming.megabytes", 256);
+        int documents = (int) (megabytes * 1024 / documentKilobytes);
+        long resultBytes = megabytes * 1024 * 1024;
+
+        for (int first = 0; first < documents; first += 16) {
+            try (Transaction tx = persistence().createTransaction(false)) {
+                persistence().createOrOverwrite(tx, Flowable.range(first, Math.min(16, documents - first))
+                        .map(i -> document("FunkyLongAddress", format("large%06d", i), VERSION,
+                                PersonAddressFixtures.createAddress(largeValue(i, documentKilobytes * 1024), "Large", "Country"))),
+                        specification).blockingAwait();
+            }
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        long maxGrowth = 0;
+        int read = 0;
+        try (Transaction tx = persistence().createTransaction(true)) {
+            Flowable<JsonDocument> large = persistence().findDocument(tx, SNAPSHOT, namespace, "FunkyLongAddress",
+                    JsonNavigationPath.from("$.state"), "Large", Range.unbounded());
+            for (JsonDocument document : large.blockingIterable(1)) {
+                assertThat(document.jackson().get("city").textValue()).hasSize(documentKilobytes * 1024);
+                if (++read % Math.max(1, documents / 10) == 0) {
+                    memory.gc();
+                    maxGrowth = Math.max(maxGrowth, memory.getHeapMemoryUsage().getUsed() - baseline);
+                }
+            }
+        }
+
+        assertThat(read).as("documents read").isEqualTo(documents);
+        assertThat(maxGrowth)
+                .as("heap growth in bytes while draining %d MB, one document at a time", megabytes)
+                .isLessThan(resultBytes / 2);
+    }
+
+    /**
+     * Requests small batches and checks that no more documents than requested are emitted, then drains the rest.
+     */
+    void assertRespectsRequests(Function<Transaction, Flowable<JsonDocument>> read) {
+        try (Transaction tx = persistence().createTransaction(true)) {
+            TestSubscriber<JsonDocument> subscriber = read.apply(tx).test(0);
+            assertEmitted(subscriber, 0);
+            int requested = 0;
+            for (int batch : new int[]{1, 2, 5, 10}) {
+                subscriber.request(batch);
+                requested += batch;
+                subscriber.awaitCount(requested);
+                assertEmitted(subscriber, requested);
+            }
+            subscriber.request(Long.MAX_VALUE);
+            subscriber.awaitDone(30, TimeUnit.SECONDS);
+            subscriber.assertNoErrors();
+            subscriber.assertComplete();
+            subscriber.assertValueCount(ITEMS);
+        }
+    }
+
+    static void assertEmitted(TestSubscriber<JsonDocument> subscriber, int requested) {
+        try {
+            Thread.sleep(SETTLE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscriber.assertNoErrors();
+        assertThat(subscriber.valueCount()).as("documents emitted after requesting %d", requested).isEqualTo(requested);
+    }
+
+    JsonDocument document(String entity, String id, ZonedDateTime version, JsonNode json) {
+        return new JsonDocument(new DocumentKey(namespace, entity, id, version), json);
+    }
+
+    static String address(int i) {
+        return format("address%02d", i);
+    }
+
+    static String largeValue(int seed, int length) {
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = DocumentGenerator.ALPHABET.charAt((seed + i) % DocumentGenerator.ALPHABET.length());
+        }
+        return new String(value);
+    }
+}
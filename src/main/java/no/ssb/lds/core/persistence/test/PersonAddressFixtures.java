@@ -0,0 +1,111 @@
+package no.ssb.lds.core.persistence.test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElementType;
+
+import java.util.List;
+import java.util.Set;
+
+import static no.ssb.lds.api.persistence.json.JsonTools.mapper;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.arrayRefNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.booleanNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.numericNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.objectNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.refNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.stringNode;
+
+/**
+ * The Person/Address/FunkyLongAddress schema and documents used throughout the kit, shared by the integration tests
+ * and the benchmarks.
+ */
+public final class PersonAddressFixtures {
+
+    private PersonAddressFixtures() {
+    }
+
+    public static ObjectNode createPerson(String firstname, String lastname) {
+        ObjectNode person = mapper.createObjectNode();
+        person.put("firstname", firstname);
+        person.put("lastname", lastname);
+        person.put("born", 1998);
+        person.put("bornWeightKg", 3.82);
+        person.put("isHuman", true);
+        return person;
+    }
+
+    public static ObjectNode createPerson(String firstname, String lastname, String currentAddressLink, String workAddressLink, List<String> previousAddressesLinks) {
+        ObjectNode person = createPerson(firstname, lastname);
+        ObjectNode history = person.putObject("history")
+                .put("currentAddress", currentAddressLink)
+                .put("workAddress", workAddressLink);
+        ArrayNode previousAddresses = history.putArray("previousAddresses");
+        for (String previousAddressLink : previousAddressesLinks) {
+            previousAddresses.add(previousAddressLink);
+        }
+        return person;
+    }
+
+    public static ObjectNode createAddress(String city, String state, String country) {
+        ObjectNode address = mapper.createObjectNode();
+        address.put("city", city);
+        address.put("state", state);
+        address.put("country", country);
+        return address;
+    }
+
+    public static Specification specification() {
+        return SpecificationBuilder.createSpecificationAndRoot(
+                Set.of(
+                        objectNode(SpecificationElementType.MANAGED, "Person", Set.of(
+                                stringNode("firstname"),
+                                stringNode("lastname"),
+                                numericNode("born"),
+                                numericNode("bornWeightKg"),
+                                booleanNode("isHuman"),
+                                objectNode("history", Set.of(
+                                        refNode("currentAddress", Set.of("Address", "FunkyLongAddress")),
+                                        refNode("workAddress", Set.of("FunkyLongAddress", "Address")),
+                                        arrayRefNode("previousAddresses", Set.of("Address", "FunkyLongAddress"), stringNode("[]"))
+                                ))
+                        )),
+                        objectNode(SpecificationElementType.MANAGED, "Address", Set.of(
+                                stringNode("city"),
+                                stringNode("state"),
+                                stringNode("country")
+                        )),
+                        objectNode(SpecificationElementType.MANAGED, "FunkyLongAddress", Set.of(
+                                stringNode("city"),
+                                stringNode("state"),
+                                stringNode("country")
+                        ))
+                ),
+                "type Person @domain {\n" +
+                        "  firstname: String\n" +
+                        "  lastname: String\n" +
+                        "  born: Int\n" +
+                        "  bornWeightKg: Float\n" +
+                        "  isHuman: Boolean\n" +
+                        "  history: History\n" +
+                        "}\n" +
+                        "type History {\n" +
+                        "  currentAddress: AddressType @link\n" +
+                        "  workAddress: AddressType @link\n" +
+                        "  previousAddresses: [AddressType] @link\n" +
+                        "}\n" +
+                        "interface AddressType {\n" +
+                        "}\n" +
+                        "type Address implements AddressType @domain {\n" +
+                        "  city: String\n" +
+                        "  state: String\n" +
+                        "  country: String\n" +
+                        "}\n" +
+                        "type FunkyLongAddress implements AddressType @domain {\n" +
+                        "  city: String\n" +
+                        "  state: String\n" +
+                        "  country: String\n" +
+                        "}"
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package no.ssb.lds.core.persistence.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+
+import java.math.BigInteger;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.parse;
+
+/**
+ * A deterministic graph of persons linking to addresses, for read tests to share. There is one Address per ten
+ * persons and one FunkyLongAddress per fifty. Each person links to one current address, one work address and
+ * {@value #PREVIOUS_ADDRESS_COUNT} distinct previous addresses, drawn from both address entities. All documents have a
+ * single version at {@link #TIMESTAMP}, and the links of every document are recorded both by source and by target.
+ * Ids are zero-padded to ten digits, so they sort in index order for any number of persons.
+ */
+public class PersonAddressGraph {
+
+    public static final ZonedDateTime TIMESTAMP = parse("2019-01-01T00:00:00.000Z");
+
+    public static final String CURRENT_ADDRESS = "$.history.currentAddress";
+    public static final String WORK_ADDRESS = "$.history.workAddress";
+    public static final String PREVIOUS_ADDRESSES = "$.history.previousAddresses[]";
+
+    static final int PREVIOUS_ADDRESS_COUNT = 5;
+
+    private final String namespace;
+    private final Map<String, Map<String, JsonDocument>> documentsByIdByEntity = new LinkedHashMap<>();
+    private final Map<String, Map<String, List<String>>> linksByPathBySource = new LinkedHashMap<>();
+    private final Map<String, Map<String, List<String>>> sourcesByPathByTarget = new LinkedHashMap<>();
+
+    public PersonAddressGraph(String namespace, int persons) {
+        this.namespace = namespace;
+        int addresses = Math.max(1, persons / 10);
+        int funkyAddresses = Math.max(1, persons / 50);
+
+        List<String> addressLinks = new ArrayList<>();
+        for (int i = 0; i < addresses; i++) {
+            String id = format("address%010d", i);
+            add("Address", id, PersonAddressFixtures.createAddress("City " + i, "State " + (i % 7), "Country " + (i % 3)));
+            addressLinks.add("/Address/" + id);
+        }
+        for (int i = 0; i < funkyAddresses; i++) {
+            String id = format("funky%010d", i);
+            add("FunkyLongAddress", id, PersonAddressFixtures.createAddress("Funky city " + i, "Funky state", "Somewhere " + i));
+            addressLinks.add("/FunkyLongAddress/" + id);
+        }
+
+        int stride = stride(addressLinks.size());
+        for (int i = 0; i < persons; i++) {
+            String id = format("person%010d", i);
+            String link = "/Person/" + id;
+            String currentAddress = addressLinks.get((i * 7) % addressLinks.size());
+            String workAddress = addressLinks.get((i * 13 + 1) % addressLinks.size());
+            Set<String> previousAddresses = new LinkedHashSet<>();
+            for (int j = 0; j < Math.min(PREVIOUS_ADDRESS_COUNT, addressLinks.size()); j++) {
+                previousAddresses.add(addressLinks.get((i * 31 + j * stride) % addressLinks.size()));
+            }
+            add("Person", id, PersonAddressFixtures.createPerson("Person " + i, "Lastname " + (i % 10),
+                    currentAddress, workAddress, new ArrayList<>(previousAddresses)));
+            link(link, CURRENT_ADDRESS, currentAddress);
+            link(link, WORK_ADDRESS, workAddress);
+            for (String previousAddress : previousAddresses) {
+                link(link, PREVIOUS_ADDRESSES, previousAddress);
+            }
+        }
+    }
+
+    /**
+     * @return the smallest stride from 17 up that has no divisor in common with the number of addresses, so that
+     * stepping through the addresses by it visits all of them before coming back to the first.
+     */
+    static int stride(int addresses) {
+        int stride = 17;
+        while (BigInteger.valueOf(stride).gcd(BigInteger.valueOf(addresses)).intValue() != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private void add(String entity, String id, JsonNode json) {
+        documentsByIdByEntity.computeIfAbsent(entity, e -> new LinkedHashMap<>())
+                .put(id, new JsonDocument(new DocumentKey(namespace, entity, id, TIMESTAMP), json));
+    }
+
+    private void link(String source, String path, String target) {
+        linksByPathBySource.computeIfAbsent(source, s -> new LinkedHashMap<>()).computeIfAbsent(path, p -> new ArrayList<>()).add(target);
+        sourcesByPathByTarget.computeIfAbsent(target, t -> new LinkedHashMap<>()).computeIfAbsent(path, p -> new ArrayList<>()).add(source);
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    /**
+     * @return every document of the graph, addresses first, for a single batched write.
+     */
+    public Flowable<JsonDocument> documents() {
+        return Flowable.fromIterable(documentsByIdByEntity.values()).concatMapIterable(Map::values);
+    }
+
+    /**
+     * @return the ids of the entity in ascending order.
+     */
+    public List<String> ids(String entity) {
+        return new ArrayList<>(documentsByIdByEntity.getOrDefault(entity, Map.of()).keySet());
+    }
+
+    public JsonDocument document(String entity, String id) {
+        return documentsByIdByEntity.getOrDefault(entity, Map.of()).get(id);
+    }
+
+    /**
+     * @return the links of a document, e.g. "/Address/address0000000001", at the path, in document order.
+     */
+    public List<String> links(String entity, String id, String path) {
+        return linksByPathBySource.getOrDefault("/" + entity + "/" + id, Map.of()).getOrDefault(path, Collections.emptyList());
+    }
+
+    /**
+     * @return the links of the documents linking to a document at the path.
+     */
+    public List<String> sources(String entity, String id, String path) {
+        return sourcesByPathByTarget.getOrDefault("/" + entity + "/" + id, Map.of()).getOrDefault(path, Collections.emptyList());
+    }
+}
@@ -0,0 +1,46 @@
+package no.ssb.lds.core.persistence.test;
+
+import no.ssb.lds.api.persistence.reactivex.RxJsonPersistence;
+import no.ssb.lds.core.persistence.metrics.InstrumentedPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the persistence of a suite through an {@link InstrumentedPersistence} when the system property lds.metrics
+ * is true, and logs the recorded metrics when the suite completes. The persistence assigned by the subclass is left
+ * as it is, the suites call it through the decorator returned by {@link #persistence(RxJsonPersistence)}.
+ */
+final class SuiteMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuiteMetrics.class);
+
+    private final boolean enabled = Boolean.getBoolean("lds.metrics");
+    private volatile InstrumentedPersistence instrumented;
+
+    /**
+     * @return the given persistence, or a decorator of it that records metrics if they are enabled.
+     */
+    RxJsonPersistence persistence(RxJsonPersistence persistence) {
+        if (!enabled || persistence == null) {
+            return persistence;
+        }
+        InstrumentedPersistence current = instrumented;
+        if (current == null || current.delegate() != persistence) {
+            synchronized (this) {
+                current = instrumented;
+                if (current == null || current.delegate() != persistence) {
+                    current = new InstrumentedPersistence(persistence);
+                    instrumented = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    void report(Class<?> suite) {
+        InstrumentedPersistence current = instrumented;
+        if (current != null) {
+            LOG.info("Persistence metrics of {}:\n{}", suite.getSimpleName(), current.metrics());
+        }
+    }
+}
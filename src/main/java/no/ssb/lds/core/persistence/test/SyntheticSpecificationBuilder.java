@@ -0,0 +1,195 @@
+package no.ssb.lds.core.persistence.test;
+
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElementType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.arrayNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.arrayRefNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.booleanNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.createSpecificationAndRoot;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.numericNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.objectNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.refNode;
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.stringNode;
+
+/**
+ * Builds synthetic specifications of a configurable shape, together with the matching SDL, to measure how the cost
+ * of a provider grows with the size of the schema rather than the size of the data. Documents for them can be
+ * generated with {@link DocumentGenerator}.
+ * <p>
+ * The managed entity has {@link #width(int)} scalar properties, alternating string, number and boolean, and an
+ * object property "nested" holding the same again, {@link #depth(int)} levels down. Next to those it has
+ * {@link #arrays(int)} arrays of objects, each object with an array of strings and an array of objects with an array
+ * of strings, and {@link #refs(int)} REF properties to a second managed entity, {@value #TARGET}, every other one an
+ * array of links.
+ */
+public class SyntheticSpecificationBuilder {
+
+    public static final String TARGET = "SyntheticTarget";
+    public static final String NESTED = "nested";
+
+    private String entity = "Synthetic";
+    private int width = 10;
+    private int depth = 0;
+    private int arrays = 0;
+    private int refs = 0;
+
+    public SyntheticSpecificationBuilder entity(String entity) {
+        this.entity = entity;
+        return this;
+    }
+
+    /**
+     * Sets the number of scalar properties at each level, defaults to 10.
+     */
+    public SyntheticSpecificationBuilder width(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.width = width;
+        return this;
+    }
+
+    /**
+     * Sets the number of nested object levels below the managed entity, defaults to none.
+     */
+    public SyntheticSpecificationBuilder depth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * Sets the number of arrays of objects of arrays on the managed entity, defaults to none.
+     */
+    public SyntheticSpecificationBuilder arrays(int arrays) {
+        this.arrays = arrays;
+        return this;
+    }
+
+    /**
+     * Sets the number of REF properties on the managed entity, defaults to none.
+     */
+    public SyntheticSpecificationBuilder refs(int refs) {
+        this.refs = refs;
+        return this;
+    }
+
+    public String entity() {
+        return entity;
+    }
+
+    /**
+     * @return the name of the scalar property at the index, the same at every level.
+     */
+    public static String property(int index) {
+        return format("p%05d", index);
+    }
+
+    /**
+     * @return the path of the first scalar property, a string, at the deepest level, e.g. "$.nested.nested.p00000".
+     */
+    public String deepestPath() {
+        StringBuilder path = new StringBuilder("$.");
+        for (int level = 0; level < depth; level++) {
+            path.append(NESTED).append('.');
+        }
+        return path.append(property(0)).toString();
+    }
+
+    public Specification build() {
+        Set<TestSpecificationElement> properties = level(depth);
+        for (int i = 0; i < arrays; i++) {
+            properties.add(arrayNode(format("list%03d", i), objectNode("[]", Set.of(
+                    stringNode("key"),
+                    arrayNode("values", stringNode("[]")),
+                    arrayNode("children", objectNode("[]", Set.of(
+                            stringNode("key"),
+                            arrayNode("values", stringNode("[]"))
+                    )))
+            ))));
+        }
+        for (int i = 0; i < refs; i++) {
+            properties.add(i % 2 == 0
+                    ? refNode(ref(i), Set.of(TARGET))
+                    : arrayRefNode(ref(i), Set.of(TARGET), stringNode("[]")));
+        }
+        return createSpecificationAndRoot(Set.of(
+                objectNode(SpecificationElementType.MANAGED, entity, properties),
+                objectNode(SpecificationElementType.MANAGED, TARGET, Set.of(
+                        stringNode("name")
+                ))
+        ), sdl());
+    }
+
+    /**
+     * @return the properties of a level with the given number of levels below it.
+     */
+    private Set<TestSpecificationElement> level(int below) {
+        Set<TestSpecificationElement> properties = new LinkedHashSet<>();
+        for (int i = 0; i < width; i++) {
+            switch (i % 3) {
+                case 0:
+                    properties.add(stringNode(property(i)));
+                    break;
+                case 1:
+                    properties.add(numericNode(property(i)));
+                    break;
+                default:
+                    properties.add(booleanNode(property(i)));
+            }
+        }
+        if (below > 0) {
+            properties.add(objectNode(NESTED, level(below - 1)));
+        }
+        return properties;
+    }
+
+    public String sdl() {
+        StringBuilder sdl = new StringBuilder();
+        for (int level = 0; level <= depth; level++) {
+            sdl.append(level == 0 ? "type " + entity + " @domain {\n" : "type " + levelType(level) + " {\n");
+            for (int i = 0; i < width; i++) {
+                sdl.append("  ").append(property(i)).append(": ").append(i % 3 == 0 ? "String" : i % 3 == 1 ? "Float" : "Boolean").append('\n');
+            }
+            if (level < depth) {
+                sdl.append("  ").append(NESTED).append(": ").append(levelType(level + 1)).append('\n');
+            }
+            if (level == 0) {
+                for (int i = 0; i < arrays; i++) {
+                    sdl.append("  ").append(format("list%03d", i)).append(": [").append(entity).append("Item]\n");
+                }
+                for (int i = 0; i < refs; i++) {
+                    sdl.append("  ").append(ref(i)).append(i % 2 == 0 ? ": " + TARGET : ": [" + TARGET + "]").append(" @link\n");
+                }
+            }
+            sdl.append("}\n");
+        }
+        if (arrays > 0) {
+            sdl.append("type ").append(entity).append("Item {\n")
+                    .append("  key: String\n")
+                    .append("  values: [String]\n")
+                    .append("  children: [").append(entity).append("Child]\n")
+                    .append("}\n")
+                    .append("type ").append(entity).append("Child {\n")
+                    .append("  key: String\n")
+                    .append("  values: [String]\n")
+                    .append("}\n");
+        }
+        sdl.append("type ").append(TARGET).append(" @domain {\n")
+                .append("  name: String\n")
+                .append("}");
+        return sdl.toString();
+    }
+
+    private String levelType(int level) {
+        return format("%sLevel%03d", entity, level);
+    }
+
+    private static String ref(int index) {
+        return format("ref%04d", index);
+    }
+}
@@ -0,0 +1,112 @@
+package no.ssb.lds.core.persistence.memory;
+
+import io.reactivex.Flowable;
+import no.ssb.lds.api.json.JsonNavigationPath;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.PersistenceDeletePolicy;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.persistence.reactivex.Range;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.time.ZonedDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemoryIndexTest {
+
+    static final String NAMESPACE = "index";
+    static final ZonedDateTime VERSION = parse("2000-01-01T00:00:00.000Z");
+    static final JsonNavigationPath LASTNAME = JsonNavigationPath.from("$.lastname");
+    static final JsonNavigationPath PREVIOUS_ADDRESSES = JsonNavigationPath.from("$.history.previousAddresses[]");
+
+    final Specification specification = PersonAddressFixtures.specification();
+    MemoryPersistence persistence;
+
+    @BeforeMethod
+    public void createPersistence() {
+        persistence = new MemoryPersistence();
+    }
+
+    JsonDocument person(String id, ZonedDateTime version, String lastname, String address) {
+        return new JsonDocument(new DocumentKey(NAMESPACE, "Person", id, version),
+                PersonAddressFixtures.createPerson("John", lastname, "/Address/" + address, "/Address/" + address, List.of("/Address/" + address)));
+    }
+
+    JsonDocument address(String id) {
+        return new JsonDocument(new DocumentKey(NAMESPACE, "Address", id, VERSION), PersonAddressFixtures.createAddress("Oslo", "", "Norway"));
+    }
+
+    void write(JsonDocument... documents) {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, Flowable.fromArray(documents), specification).blockingAwait();
+        }
+    }
+
+    List<JsonDocument> findByLastname(String lastname) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.findDocument(tx, VERSION.plusYears(1), NAMESPACE, "Person", LASTNAME, lastname, Range.unbounded()).toList().blockingGet();
+        }
+    }
+
+    List<JsonDocument> sourcesOf(String address) {
+        try (Transaction tx = persistence.createTransaction(true)) {
+            return persistence.readSourceDocuments(tx, VERSION.plusYears(1), NAMESPACE, "Address", address, PREVIOUS_ADDRESSES, "Person", Range.unbounded()).toList().blockingGet();
+        }
+    }
+
+    @Test
+    public void thatOverwriteRemovesReplacedValuesAndLinks() {
+        write(address("oslo"), address("bergen"), person("jack", VERSION, "Smith", "oslo"));
+        write(person("jack", VERSION, "Jones", "bergen"));
+
+        MemoryEntity persons = persistence.entity(NAMESPACE, "Person");
+        assertThat(persons.idsWithValue("$.lastname", "Smith")).isEmpty();
+        assertThat(persons.idsWithValue("$.lastname", "Jones")).containsExactly("jack");
+        assertThat(persons.idsByPathAndValue.get("$.lastname")).containsOnlyKeys("Jones");
+        assertThat(persistence.entity(NAMESPACE, "Address").incomingByTargetId).containsOnlyKeys("bergen");
+        assertThat(findByLastname("Jones")).hasSize(1);
+        assertThat(sourcesOf("bergen")).hasSize(1);
+    }
+
+    @Test
+    public void thatValuesOfOtherVersionsAreKept() {
+        write(address("oslo"), person("jack", VERSION, "Smith", "oslo"), person("jack", VERSION.plusDays(1), "Jones", "oslo"));
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.deleteDocument(tx, NAMESPACE, "Person", "jack", VERSION.plusDays(1), PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+        }
+
+        MemoryEntity persons = persistence.entity(NAMESPACE, "Person");
+        assertThat(persons.idsByPathAndValue.get("$.lastname")).containsOnlyKeys("Smith");
+        assertThat(persistence.entity(NAMESPACE, "Address").incoming("oslo")).isNotEmpty();
+        assertThat(sourcesOf("oslo")).hasSize(1);
+    }
+
+    @Test
+    public void thatDeletesLeaveIndexesEmpty() {
+        for (int round = 0; round < 3; round++) {
+            write(address("oslo"), person("jack", VERSION, "Smith " + round, "oslo"), person("jill", VERSION, "Jones " + round, "oslo"));
+            try (Transaction tx = persistence.createTransaction(false)) {
+                persistence.deleteAllDocumentVersions(tx, NAMESPACE, "Person", "jack", PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+                persistence.deleteDocument(tx, NAMESPACE, "Person", "jill", VERSION, PersistenceDeletePolicy.FAIL_IF_INCOMING_LINKS).blockingAwait();
+            }
+            assertThat(persistence.entity(NAMESPACE, "Person").idsByPathAndValue.values()).allMatch(idsByValue -> idsByValue.isEmpty());
+            assertThat(persistence.entity(NAMESPACE, "Address").incomingByTargetId).isEmpty();
+        }
+
+        write(person("jack", VERSION, "Smith", "oslo"));
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.deleteAllEntities(tx, NAMESPACE, "Person", specification).blockingAwait();
+            persistence.deleteAllEntities(tx, NAMESPACE, "Address", specification).blockingAwait();
+        }
+        assertThat(persistence.entity(NAMESPACE, "Person").idsByPathAndValue).isEmpty();
+        assertThat(persistence.entity(NAMESPACE, "Person").versionsById).isEmpty();
+        assertThat(persistence.entity(NAMESPACE, "Address").incomingByTargetId).isEmpty();
+        assertThat(persistence.entity(NAMESPACE, "Address").idsByPathAndValue).isEmpty();
+    }
+}
@@ -0,0 +1,11 @@
+package no.ssb.lds.core.persistence.memory;
+
+import no.ssb.lds.core.persistence.test.PersistenceCancellationTest;
+
+public class MemoryPersistenceCancellationTest extends PersistenceCancellationTest {
+
+    public MemoryPersistenceCancellationTest() {
+        super("cancellation");
+        persistence = new MemoryPersistence();
+    }
+}
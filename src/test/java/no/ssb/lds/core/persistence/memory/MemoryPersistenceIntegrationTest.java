@@ -0,0 +1,11 @@
+package no.ssb.lds.core.persistence.memory;
+
+import no.ssb.lds.core.persistence.test.PersistenceIntegrationTest;
+
+public class MemoryPersistenceIntegrationTest extends PersistenceIntegrationTest {
+
+    public MemoryPersistenceIntegrationTest() {
+        super("ns");
+        persistence = new MemoryPersistence();
+    }
+}
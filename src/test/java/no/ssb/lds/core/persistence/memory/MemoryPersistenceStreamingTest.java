@@ -0,0 +1,11 @@
+package no.ssb.lds.core.persistence.memory;
+
+import no.ssb.lds.core.persistence.test.PersistenceStreamingTest;
+
+public class MemoryPersistenceStreamingTest extends PersistenceStreamingTest {
+
+    public MemoryPersistenceStreamingTest() {
+        super("streaming");
+        persistence = new MemoryPersistence();
+    }
+}
@@ -0,0 +1,53 @@
+package no.ssb.lds.core.persistence.metrics;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import no.ssb.lds.api.persistence.DocumentKey;
+import no.ssb.lds.api.persistence.Transaction;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.core.persistence.memory.MemoryPersistence;
+import no.ssb.lds.core.persistence.test.PersonAddressFixtures;
+import org.testng.annotations.Test;
+
+import static java.time.ZonedDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentedPersistenceTest {
+
+    final Specification specification = PersonAddressFixtures.specification();
+    final InstrumentedPersistence persistence = new InstrumentedPersistence(new MemoryPersistence());
+
+    JsonDocument person(String id) {
+        return new JsonDocument(new DocumentKey("metrics", "Person", id, parse("2000-01-01T00:00:00.000Z")),
+                PersonAddressFixtures.createPerson("John", "Smith"));
+    }
+
+    MethodMetrics metrics(String method) {
+        return persistence.metrics().snapshot().get(method);
+    }
+
+    @Test
+    public void thatSingleWritesAreCountedPerSubscription() {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            Completable write = persistence.createOrOverwrite(tx, person("1"), specification);
+            assertThat(metrics("createOrOverwrite").items()).isZero();
+
+            write.blockingAwait();
+            write.blockingAwait();
+
+            assertThat(metrics("createOrOverwrite").calls()).isEqualTo(1);
+            assertThat(metrics("createOrOverwrite").completions()).isEqualTo(2);
+            assertThat(metrics("createOrOverwrite").items()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void thatFlowableWritesAreCountedPerDocument() {
+        try (Transaction tx = persistence.createTransaction(false)) {
+            persistence.createOrOverwrite(tx, Flowable.just(person("2"), person("3")), specification).blockingAwait();
+
+            assertThat(metrics("createOrOverwriteFlowable").items()).isEqualTo(2);
+        }
+    }
+}
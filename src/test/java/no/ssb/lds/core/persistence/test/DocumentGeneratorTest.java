@@ -0,0 +1,113 @@
+package no.ssb.lds.core.persistence.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import no.ssb.lds.api.persistence.json.JsonDocument;
+import no.ssb.lds.api.specification.Specification;
+import no.ssb.lds.api.specification.SpecificationElementType;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static no.ssb.lds.core.persistence.test.SpecificationBuilder.objectNode;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentGeneratorTest {
+
+    final Specification specification = PersonAddressFixtures.specification();
+
+    DocumentGenerator generator() {
+        return new DocumentGenerator(specification, "generator")
+                .documents("Person", 20)
+                .documents("Address", 10)
+                .documents("FunkyLongAddress", 10)
+                .versions(3);
+    }
+
+    static String describe(JsonDocument document) {
+        return document.key().entity() + "/" + document.key().id() + "@" + document.key().timestamp().toInstant() + " " + document.jackson();
+    }
+
+    @Test
+    public void thatSameSeedGivesSameDocuments() {
+        List<String> first = generator().seed(42).generateAll().map(DocumentGeneratorTest::describe).toList().blockingGet();
+        List<String> second = generator().seed(42).generateAll().map(DocumentGeneratorTest::describe).toList().blockingGet();
+        List<String> otherSeed = generator().seed(43).generateAll().map(DocumentGeneratorTest::describe).toList().blockingGet();
+
+        assertThat(first).hasSize((20 + 10 + 10) * 3).isEqualTo(second);
+        assertThat(otherSeed).hasSameSizeAs(first).isNotEqualTo(first);
+    }
+
+    @Test
+    public void thatSingleDocumentsMatchTheStream() {
+        DocumentGenerator generator = generator();
+        List<JsonDocument> persons = generator.generate("Person").toList().blockingGet();
+        for (int index : new int[]{0, 7, 19}) {
+            for (int version = 0; version < 3; version++) {
+                assertThat(describe(generator.generate("Person", index, version))).isEqualTo(describe(persons.get(index * 3 + version)));
+            }
+        }
+    }
+
+    @Test
+    public void thatIdsAscendInGenerationOrder() {
+        DocumentGenerator generator = new DocumentGenerator(specification, "generator").documents("Address", 12_000).versions(2);
+        List<JsonDocument> addresses = generator.generate("Address").toList().blockingGet();
+
+        assertThat(addresses).hasSize(24_000);
+        for (int i = 1; i < addresses.size(); i++) {
+            JsonDocument previous = addresses.get(i - 1);
+            JsonDocument document = addresses.get(i);
+            if (i % 2 == 0) {
+                assertThat(document.key().id()).as("id after %s", previous.key().id()).isGreaterThan(previous.key().id());
+                assertThat(document.key().timestamp()).isEqualTo(generator.version(0));
+            } else {
+                assertThat(document.key().id()).isEqualTo(previous.key().id());
+                assertThat(document.key().timestamp()).isEqualTo(generator.version(1));
+            }
+        }
+        assertThat(addresses.get(0).key().id()).isEqualTo(generator.id("Address", 0));
+        assertThat(addresses.get(addresses.size() - 1).key().id()).isEqualTo(generator.id("Address", 11_999));
+    }
+
+    @Test
+    public void thatRefArraysHaveFanOutDistinctLinksWithinTargetRange() {
+        DocumentGenerator generator = generator().refFanOut(5);
+        Set<String> targets = new HashSet<>();
+        for (long i = 0; i < 10; i++) {
+            targets.add("/Address/" + generator.id("Address", i));
+            targets.add("/FunkyLongAddress/" + generator.id("FunkyLongAddress", i));
+        }
+
+        for (JsonDocument person : generator.generate("Person").toList().blockingGet()) {
+            JsonNode links = person.jackson().path("history").path("previousAddresses");
+            assertThat(links.size()).as("links of %s", person.key().id()).isEqualTo(5);
+            Set<String> distinct = new HashSet<>();
+            for (JsonNode link : links) {
+                assertThat(targets).contains(link.textValue());
+                distinct.add(link.textValue());
+            }
+            assertThat(distinct).as("distinct links of %s", person.key().id()).hasSize(5);
+            assertThat(targets).contains(person.jackson().path("history").path("currentAddress").textValue());
+        }
+    }
+
+    @Test
+    public void thatArraysWithoutItemsHoldStrings() {
+        TestSpecificationElement tags = new TestSpecificationElement("tags", SpecificationElementType.EMBEDDED, Set.of("array"), List.of(), Set.of(), Map.of(), null);
+        Specification specification = SpecificationBuilder.createSpecificationAndRoot(
+                Set.of(objectNode(SpecificationElementType.MANAGED, "Thing", Set.of(tags))),
+                "type Thing {\n  tags: [String]\n}\n");
+
+        JsonDocument thing = new DocumentGenerator(specification, "generator").arraySize(4).valueSize(8).generate("Thing", 0, 0);
+
+        JsonNode values = thing.jackson().get("tags");
+        assertThat(values.size()).isEqualTo(4);
+        for (JsonNode value : values) {
+            assertThat(value.isTextual()).isTrue();
+            assertThat(value.textValue()).hasSize(8);
+        }
+    }
+}
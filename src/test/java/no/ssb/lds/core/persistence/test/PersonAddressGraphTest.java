@@ -0,0 +1,37 @@
+package no.ssb.lds.core.persistence.test;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersonAddressGraphTest {
+
+    @DataProvider
+    public static Object[][] persons() {
+        // 290 and 430 persons have 34 and 51 addresses, multiples of the default stride 17
+        return new Object[][]{{1}, {11}, {100}, {290}, {430}, {1000}};
+    }
+
+    @Test(dataProvider = "persons", timeOut = 10_000)
+    public void thatEveryPersonHasDistinctPreviousAddresses(int persons) {
+        PersonAddressGraph graph = new PersonAddressGraph("graph", persons);
+        int addresses = graph.ids("Address").size() + graph.ids("FunkyLongAddress").size();
+
+        assertThat(graph.ids("Person")).hasSize(persons);
+        for (String id : graph.ids("Person")) {
+            assertThat(graph.links("Person", id, PersonAddressGraph.PREVIOUS_ADDRESSES))
+                    .doesNotHaveDuplicates()
+                    .hasSize(Math.min(PersonAddressGraph.PREVIOUS_ADDRESS_COUNT, addresses));
+        }
+    }
+
+    @Test
+    public void thatStrideHasNoCommonDivisorWithTheAddresses() {
+        assertThat(PersonAddressGraph.stride(1)).isEqualTo(17);
+        assertThat(PersonAddressGraph.stride(12)).isEqualTo(17);
+        assertThat(PersonAddressGraph.stride(34)).isEqualTo(19);
+        assertThat(PersonAddressGraph.stride(51)).isEqualTo(19);
+        assertThat(PersonAddressGraph.stride(17 * 18 * 19)).isEqualTo(23);
+    }
+}